@@ -0,0 +1,28 @@
+package io.github.mike10004.nitsick;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Entry point that runs benchmarks with the GC profiler enabled, so that
+ * allocation rates are reported alongside throughput. Arguments are
+ * interpreted as standard JMH command line options, so for example a
+ * regular expression argument selects a subset of the benchmarks.
+ */
+public class Benchmarks {
+
+    private Benchmarks() {}
+
+    public static void main(String[] args) throws RunnerException, CommandLineOptionException {
+        Options options = new OptionsBuilder()
+                .parent(new CommandLineOptions(args))
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(options).run();
+    }
+}
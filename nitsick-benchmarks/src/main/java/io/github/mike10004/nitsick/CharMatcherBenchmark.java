@@ -0,0 +1,64 @@
+package io.github.mike10004.nitsick;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of the {@link CharMatcher} text routines used by the library.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CharMatcherBenchmark {
+
+    @Param({"some.setting.name", ".some-setting_name with spaces."})
+    public String text;
+
+    private final CharMatcher composite = CharMatcher.inRange('a', 'z')
+            .or(CharMatcher.inRange('A', 'Z'))
+            .or(CharMatcher.inRange('0', '9'))
+            .or(CharMatcher.is('_'));
+
+    @Benchmark
+    public String trimFrom() {
+        return CharMatchers.dot().trimFrom(text);
+    }
+
+    @Benchmark
+    public String replaceFrom() {
+        return CharMatchers.dot().replaceFrom(text, '_');
+    }
+
+    @Benchmark
+    public String removeFrom() {
+        return CharMatchers.nonUsEnglishAlphanumericOrUnderscore().removeFrom(text);
+    }
+
+    @Benchmark
+    public boolean matchesAllOf() {
+        return CharMatchers.usEnglishAlphanumericOrUnderscore().matchesAllOf(text);
+    }
+
+    @Benchmark
+    public boolean matchesAllOfComposite() {
+        return composite.matchesAllOf(text);
+    }
+
+    @Benchmark
+    public String whitespaceRemoveFrom() {
+        return CharMatcher.whitespace().removeFrom(text);
+    }
+}
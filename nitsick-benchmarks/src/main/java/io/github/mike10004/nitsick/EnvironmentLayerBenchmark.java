@@ -0,0 +1,53 @@
+package io.github.mike10004.nitsick;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of key transformation and lookup in {@link EnvironmentLayer}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EnvironmentLayerBenchmark {
+
+    @Param({"bench.some.setting", "Bench.some-setting."})
+    public String key;
+
+    private EnvironmentLayer layer;
+
+    @Setup
+    public void setUp() {
+        Map<String, String> environment = new HashMap<>(System.getenv());
+        environment.put("BENCH_SOME_SETTING", "value");
+        environment.put("BENCH_SOMESETTING", "value");
+        layer = new EnvironmentLayer(environment);
+    }
+
+    @Benchmark
+    public void transformToEnvironmentVariables(Blackhole bh) {
+        EnvironmentLayer.transformToEnvironmentVariables(key).forEach(bh::consume);
+    }
+
+    @Benchmark
+    public String apply() {
+        return layer.apply(key);
+    }
+}
@@ -0,0 +1,92 @@
+package io.github.mike10004.nitsick;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of setting resolution through a {@link LayeredSettingSet}.
+ * The value, when present, is defined under the last alias in the bottom layer,
+ * so every lookup consults every layer. The single-identifier benchmark looks up
+ * a separate identifier, which is likewise defined in the bottom layer when present.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LayeredSettingSetBenchmark {
+
+    @Param({"1", "2", "4"})
+    public int layerCount;
+
+    @Param({"1", "3"})
+    public int aliasCount;
+
+    @Param({"true", "false"})
+    public boolean hit;
+
+    private SettingSet settings;
+    private String identifier;
+    private String[] aliases;
+    private CompiledLookup lookup;
+
+    @Setup
+    public void setUp() {
+        aliases = new String[aliasCount];
+        for (int i = 0; i < aliasCount; i++) {
+            aliases[i] = "some.setting.alias" + i;
+        }
+        identifier = "some.setting.single";
+        List<SettingLayer> layers = new ArrayList<>();
+        for (int i = 0; i < layerCount; i++) {
+            Map<String, String> map = new HashMap<>();
+            for (int j = 0; j < 20; j++) {
+                map.put("bench.other" + i + "." + j, "x");
+            }
+            if (hit && i == layerCount - 1) {
+                map.put("bench." + aliases[aliasCount - 1], "value");
+                map.put("bench." + identifier, "value");
+            }
+            layers.add(new ForwardingLayer(map::get));
+        }
+        settings = new LayeredSettingSet("bench", layers);
+        lookup = settings.compile(aliases);
+    }
+
+    @Benchmark
+    public String getStream() {
+        return settings.get(Arrays.stream(aliases));
+    }
+
+    @Benchmark
+    public String getArray() {
+        return settings.get(aliases);
+    }
+
+    @Benchmark
+    public String getSingle() {
+        return settings.get(identifier);
+    }
+
+    @Benchmark
+    public String getCompiled() {
+        return lookup.get();
+    }
+}
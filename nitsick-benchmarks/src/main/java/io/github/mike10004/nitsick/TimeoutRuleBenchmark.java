@@ -0,0 +1,68 @@
+package io.github.mike10004.nitsick;
+
+import io.github.mike10004.nitsick.junit.WatchdogTimeout;
+import org.junit.rules.Timeout;
+import org.junit.runner.Description;
+import org.junit.runners.model.Statement;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of the per-test overhead of {@link WatchdogTimeout} compared
+ * with the stock {@link Timeout} rule, which starts a thread for each test.
+ * Each benchmark evaluates a test that does nothing.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TimeoutRuleBenchmark {
+
+    private Statement emptyTest;
+    private Statement stock;
+    private Statement watchdog;
+
+    @Setup
+    public void setUp() {
+        Description description = Description.createTestDescription(TimeoutRuleBenchmark.class, "emptyTest");
+        emptyTest = new Statement() {
+            @Override
+            public void evaluate() {
+            }
+        };
+        stock = new Timeout(30, TimeUnit.SECONDS).apply(emptyTest, description);
+        watchdog = new WatchdogTimeout(Duration.ofSeconds(30)).apply(emptyTest, description);
+    }
+
+    @Benchmark
+    public void noRule(Blackhole bh) throws Throwable {
+        emptyTest.evaluate();
+        bh.consume(emptyTest);
+    }
+
+    @Benchmark
+    public void stockTimeout(Blackhole bh) throws Throwable {
+        stock.evaluate();
+        bh.consume(stock);
+    }
+
+    @Benchmark
+    public void watchdogTimeout(Blackhole bh) throws Throwable {
+        watchdog.evaluate();
+        bh.consume(watchdog);
+    }
+}
@@ -0,0 +1,46 @@
+package io.github.mike10004.nitsick;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Interface of a layer whose values are fetched asynchronously, such as a layer
+ * backed by a remote service. Setting sets that support asynchronous lookups
+ * compose the futures returned by {@link #applyAsync(String)} without blocking.
+ * @see SettingSet#getAsync(String)
+ */
+public interface AsyncSettingLayer extends SettingLayer {
+
+    /**
+     * Requests the value of a key.
+     * @param key the key
+     * @return a future that completes with the value, or with null if the key is undefined
+     */
+    CompletableFuture<String> applyAsync(String key);
+
+    /**
+     * Gets the value of a key, blocking until it is available.
+     * @param key the key
+     * @return the value, or null if undefined
+     * @throws java.util.concurrent.CompletionException if the request failed
+     */
+    @Override
+    default String apply(String key) {
+        return applyAsync(key).join();
+    }
+
+    /**
+     * Adapts a synchronous layer whose requests block, such that its requests
+     * are performed by an executor.
+     * @param layer the layer
+     * @param executor the executor that performs requests
+     * @return an asynchronous layer
+     */
+    static AsyncSettingLayer supplyAsync(SettingLayer layer, Executor executor) {
+        requireNonNull(layer, "layer");
+        requireNonNull(executor, "executor");
+        return key -> CompletableFuture.supplyAsync(() -> layer.apply(key), executor);
+    }
+}
@@ -0,0 +1,139 @@
+package io.github.mike10004.nitsick;
+
+import javax.annotation.Nullable;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Handle that provides the parsed value of a setting in a particular setting set.
+ * The lookup of the raw value is compiled when the handle is created. The raw value
+ * and the value parsed from it are cached in the handle, so once the setting is
+ * resolved, reading its value is a single field load. The cached value is dropped
+ * only when the handle is invalidated, and the parser is invoked again only if the
+ * raw value resolved afterwards differs from the previous one.
+ *
+ * <p>Handles bound by a {@link LayeredSettingSet} are invalidated when a layer
+ * reports a change to one of the setting's keys. Handles declared in a
+ * {@link SettingRegistry} are resolved again each time the registry prefetches
+ * its settings.
+ * @param <T> type of the parsed value
+ * @see SettingSet#bind(Setting)
+ * @see SettingRegistry#declare(Setting)
+ */
+public final class BoundSetting<T> implements Supplier<T> {
+
+    private final Setting<T> setting;
+    private final CompiledLookup lookup;
+
+    /*
+     * Either the resolved value or an Unresolved token. Each invalidation installs
+     * a fresh token, and a resolution replaces only the token it started from,
+     * so a value resolved before an invalidation is never cached after it.
+     */
+    private final AtomicReference<Object> state = new AtomicReference<>(new Unresolved<T>(null));
+
+    BoundSetting(Setting<T> setting, CompiledLookup lookup) {
+        this.setting = requireNonNull(setting, "setting");
+        this.lookup = requireNonNull(lookup, "lookup");
+    }
+
+    /**
+     * Gets the parsed value of the setting.
+     * @return the parsed value, or the default value if the setting is not defined
+     */
+    @Override
+    public T get() {
+        return resolved().value;
+    }
+
+    /**
+     * Gets the raw value of the setting.
+     * @return the raw value, or null if the setting is not defined
+     */
+    @Nullable
+    public String getRaw() {
+        return resolved().raw;
+    }
+
+    /**
+     * Gets the descriptor of the setting.
+     * @return the descriptor
+     */
+    public Setting<T> setting() {
+        return setting;
+    }
+
+    @SuppressWarnings("unchecked")
+    private Parsed<T> resolved() {
+        Object current = state.get();
+        if (current instanceof Parsed) {
+            return (Parsed<T>) current;
+        }
+        return resolve((Unresolved<T>) current);
+    }
+
+    /**
+     * Looks up and parses the value of the setting, replacing any cached value.
+     */
+    void resolve() {
+        invalidate();
+        resolved();
+    }
+
+    /**
+     * Drops the cached value, so that the setting is resolved again when the value is next requested.
+     */
+    @SuppressWarnings("unchecked")
+    void invalidate() {
+        Object current = state.get();
+        Parsed<T> previous = current instanceof Parsed ? (Parsed<T>) current : ((Unresolved<T>) current).previous;
+        state.set(new Unresolved<>(previous));
+    }
+
+    boolean isResolved() {
+        return state.get() instanceof Parsed;
+    }
+
+    private Parsed<T> resolve(Unresolved<T> token) {
+        String raw = lookup.get();
+        Parsed<T> previous = token.previous;
+        Parsed<T> parsed;
+        if (previous != null && (previous.raw == raw || (raw != null && raw.equals(previous.raw)))) {
+            parsed = previous;
+        } else {
+            parsed = new Parsed<>(raw, Strings.parseNonEmpty(raw, setting.parser(), setting.defaultValue()));
+        }
+        state.compareAndSet(token, parsed);
+        return parsed;
+    }
+
+    @Override
+    public String toString() {
+        return "BoundSetting{" + setting + "}";
+    }
+
+    private static final class Parsed<T> {
+
+        @Nullable
+        public final String raw;
+        @Nullable
+        public final T value;
+
+        public Parsed(@Nullable String raw, @Nullable T value) {
+            this.raw = raw;
+            this.value = value;
+        }
+    }
+
+    private static final class Unresolved<T> {
+
+        @Nullable
+        public final Parsed<T> previous;
+
+        public Unresolved(@Nullable Parsed<T> previous) {
+            this.previous = previous;
+        }
+    }
+}
@@ -0,0 +1,226 @@
+package io.github.mike10004.nitsick;
+
+import javax.annotation.Nullable;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.LongSupplier;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Layer that memoizes the values provided by another layer.
+ * The cache is bounded in size and evicts the least recently used key when full.
+ * Entries may optionally expire a fixed duration after they are written.
+ * Keys that are undefined in the underlying layer are cached as well,
+ * so a missing key does not cause repeated requests to the underlying layer.
+ *
+ * <p>Before a value is requested from the underlying layer, a pending placeholder
+ * is installed for the key, and the value is cached only if the placeholder is
+ * still present when the request returns. An invalidation that happens while
+ * the request is in progress removes the placeholder, so a value fetched before
+ * the invalidation is not cached.
+ */
+public class CachingLayer implements SettingLayer {
+
+    private final SettingLayer delegate;
+    private final LruCache<String, Entry> cache;
+    private final long expireAfterWriteNanos;
+    private final LongSupplier ticker;
+    private final LongAdder hitCount = new LongAdder();
+    private final LongAdder missCount = new LongAdder();
+
+    /**
+     * Constructs an instance whose entries do not expire.
+     * @param delegate the underlying layer
+     * @param maximumSize maximum number of keys to cache
+     */
+    public CachingLayer(SettingLayer delegate, int maximumSize) {
+        this(delegate, maximumSize, null);
+    }
+
+    /**
+     * Constructs an instance.
+     * @param delegate the underlying layer
+     * @param maximumSize maximum number of keys to cache
+     * @param expireAfterWrite duration after which an entry expires, or null if entries do not expire
+     */
+    public CachingLayer(SettingLayer delegate, int maximumSize, @Nullable Duration expireAfterWrite) {
+        this(delegate, maximumSize, expireAfterWrite, System::nanoTime);
+    }
+
+    CachingLayer(SettingLayer delegate, int maximumSize, @Nullable Duration expireAfterWrite, LongSupplier ticker) {
+        this.delegate = requireNonNull(delegate, "delegate");
+        this.cache = new LruCache<>(maximumSize);
+        this.expireAfterWriteNanos = expireAfterWrite == null ? Long.MAX_VALUE : expireAfterWrite.toNanos();
+        this.ticker = requireNonNull(ticker);
+    }
+
+    @Override
+    public String apply(String key) {
+        Entry entry = cache.get(key);
+        if (entry != null && isFresh(entry, expireAfterWriteNanos == Long.MAX_VALUE ? 0L : ticker.getAsLong())) {
+            hitCount.increment();
+            return entry.value;
+        }
+        missCount.increment();
+        Entry pending = Entry.pending();
+        boolean reserved = cache.replace(key, entry, pending);
+        String value = delegate.apply(key);
+        if (reserved) {
+            cache.replace(key, pending, new Entry(value, expireAfterWriteNanos == Long.MAX_VALUE ? 0L : ticker.getAsLong()));
+        }
+        return value;
+    }
+
+    private boolean isFresh(Entry entry, long now) {
+        return !entry.pending && (expireAfterWriteNanos == Long.MAX_VALUE || now - entry.writeTime < expireAfterWriteNanos);
+    }
+
+    /**
+     * Gets the values of multiple keys. Values that are cached are returned from
+     * the cache, and the remaining keys are requested from the underlying layer
+     * in a single invocation of {@link SettingLayer#applyAll(Collection)}.
+     * @param keys the keys
+     * @return a new map of keys to values
+     */
+    @Override
+    public Map<String, String> applyAll(Collection<String> keys) {
+        Map<String, String> values = new HashMap<>();
+        List<String> missing = new ArrayList<>();
+        List<Entry> reservations = new ArrayList<>();
+        long now = expireAfterWriteNanos == Long.MAX_VALUE ? 0L : ticker.getAsLong();
+        for (String key : keys) {
+            Entry entry = cache.get(key);
+            if (entry != null && isFresh(entry, now)) {
+                hitCount.increment();
+                if (entry.value != null) {
+                    values.put(key, entry.value);
+                }
+            } else {
+                missCount.increment();
+                missing.add(key);
+                Entry pending = Entry.pending();
+                reservations.add(cache.replace(key, entry, pending) ? pending : null);
+            }
+        }
+        if (!missing.isEmpty()) {
+            Map<String, String> fetched = delegate.applyAll(missing);
+            for (int i = 0; i < missing.size(); i++) {
+                String key = missing.get(i);
+                String value = fetched.get(key);
+                Entry pending = reservations.get(i);
+                if (pending != null) {
+                    cache.replace(key, pending, new Entry(value, now));
+                }
+                if (value != null) {
+                    values.put(key, value);
+                }
+            }
+        }
+        return values;
+    }
+
+    /**
+     * Captures settings from the underlying layer. Captured values are not cached.
+     * @param keyPrefix the key prefix
+     * @return the map captured by the underlying layer
+     */
+    @Override
+    public Map<String, String> capture(String keyPrefix) {
+        return delegate.capture(keyPrefix);
+    }
+
+    /**
+     * Subscribes to notifications of changes from the underlying layer. Cached values
+     * of changed keys are discarded before the listener is invoked, so the listener
+     * sees the new values.
+     * @param listener the listener
+     * @return the subscription
+     */
+    @Override
+    public Subscription subscribe(Consumer<? super Set<String>> listener) {
+        requireNonNull(listener, "listener");
+        return delegate.subscribe(keys -> {
+            for (String key : keys) {
+                invalidate(key);
+            }
+            listener.accept(keys);
+        });
+    }
+
+    /**
+     * Discards the cached value of a key.
+     * @param key the key
+     */
+    public void invalidate(String key) {
+        cache.remove(key);
+    }
+
+    /**
+     * Discards all cached values.
+     */
+    public void invalidateAll() {
+        cache.clear();
+    }
+
+    /**
+     * Gets the number of requests that were answered from the cache.
+     * @return the hit count
+     */
+    public long hitCount() {
+        return hitCount.sum();
+    }
+
+    /**
+     * Gets the number of requests that were forwarded to the underlying layer.
+     * @return the miss count
+     */
+    public long missCount() {
+        return missCount.sum();
+    }
+
+    /**
+     * Gets the number of keys currently cached.
+     * @return the number of cached keys
+     */
+    public int size() {
+        return cache.size();
+    }
+
+    @Override
+    public String toString() {
+        return "CachingLayer{delegate=" + delegate + "}";
+    }
+
+    private static final class Entry {
+
+        @Nullable
+        public final String value;
+        public final long writeTime;
+        public final boolean pending;
+
+        public Entry(@Nullable String value, long writeTime) {
+            this(value, writeTime, false);
+        }
+
+        private Entry(@Nullable String value, long writeTime, boolean pending) {
+            this.value = value;
+            this.writeTime = writeTime;
+            this.pending = pending;
+        }
+
+        /**
+         * Creates a placeholder for a value that is being requested from the underlying layer.
+         */
+        public static Entry pending() {
+            return new Entry(null, 0L, true);
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package io.github.mike10004.nitsick;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Single daemon thread on which notifications of changes to watched settings are delivered.
+ * The thread is started when the first notification is scheduled.
+ */
+final class ChangeDispatcher {
+
+    private ChangeDispatcher() {}
+
+    private static final class Holder {
+
+        static final ScheduledExecutorService EXECUTOR = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "nitsick-change-dispatcher");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public static void schedule(Runnable task, long delayNanos) {
+        Holder.EXECUTOR.schedule(task, delayNanos, TimeUnit.NANOSECONDS);
+    }
+}
@@ -0,0 +1,46 @@
+package io.github.mike10004.nitsick;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Registry of listeners to changes to the keys of a layer.
+ */
+final class ChangeNotifier {
+
+    private final List<Consumer<? super Set<String>>> listeners = new CopyOnWriteArrayList<>();
+
+    public Subscription subscribe(Consumer<? super Set<String>> listener) {
+        requireNonNull(listener, "listener");
+        listeners.add(listener);
+        return () -> listeners.remove(listener);
+    }
+
+    /**
+     * Determines whether any listener is subscribed.
+     * @return true if there is at least one listener
+     */
+    public boolean hasListeners() {
+        return !listeners.isEmpty();
+    }
+
+    /**
+     * Notifies all listeners that the values of some keys changed.
+     * Nothing happens if the set of keys is empty.
+     * @param changedKeys the keys whose values changed
+     */
+    public void publish(Set<String> changedKeys) {
+        if (changedKeys.isEmpty()) {
+            return;
+        }
+        Set<String> keys = Collections.unmodifiableSet(changedKeys);
+        for (Consumer<? super Set<String>> listener : listeners) {
+            listener.accept(keys);
+        }
+    }
+}
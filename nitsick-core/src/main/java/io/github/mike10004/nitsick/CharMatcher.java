@@ -381,8 +381,73 @@ public abstract class CharMatcher implements java.util.function.Predicate<Charac
         return new Or(this, other);
     }
 
+    /**
+     * Returns a {@code char} matcher functionally equivalent to this one, but which may be faster to
+     * query than the original; your mileage may vary. Precomputation takes time and is likely to be
+     * worthwhile only if the precomputed matcher is queried many thousands of times.
+     *
+     * <p>This method collapses composite matchers, such as those built with {@link #or(CharMatcher)},
+     * into a flat table of matching characters. Matchers of at most two characters become
+     * specialized single-character or two-character matchers, matchers of ASCII characters
+     * only become a pair of bitmask words, and other matchers become a {@link BitSet}.
+     * If more than half of all characters match, the table is built for the negation.
+     */
+    public CharMatcher precomputed() {
+        return precomputedInternal();
+    }
+
     private static final int DISTINCT_CHARS = Character.MAX_VALUE - Character.MIN_VALUE + 1;
 
+    /**
+     * This is the actual implementation of {@link #precomputed}, but we bounce calls through a method
+     * on {@link CharMatcher} to allow for subclasses that can already be evaluated quickly.
+     */
+    CharMatcher precomputedInternal() {
+        final BitSet table = new BitSet();
+        setBits(table);
+        int totalCharacters = table.cardinality();
+        if (totalCharacters * 2 <= DISTINCT_CHARS) {
+            return precomputedPositive(totalCharacters, table, toString());
+        } else {
+            table.flip(Character.MIN_VALUE, Character.MAX_VALUE + 1);
+            int negatedCharacters = DISTINCT_CHARS - totalCharacters;
+            String suffix = ".negate()";
+            final String description = toString();
+            String negatedDescription =
+                    description.endsWith(suffix)
+                            ? description.substring(0, description.length() - suffix.length())
+                            : description + suffix;
+            return new NegatedFastMatcher(
+                    precomputedPositive(negatedCharacters, table, negatedDescription)) {
+                @Override
+                public String toString() {
+                    return description;
+                }
+            };
+        }
+    }
+
+    /**
+     * Helper method for {@link #precomputedInternal} that doesn't test if the negation is cheaper.
+     */
+    private static CharMatcher precomputedPositive(
+            int totalCharacters, BitSet table, String description) {
+        switch (totalCharacters) {
+            case 0:
+                return none();
+            case 1:
+                return is((char) table.nextSetBit(0));
+            case 2:
+                char c1 = (char) table.nextSetBit(0);
+                char c2 = (char) table.nextSetBit(c1 + 1);
+                return isEither(c1, c2);
+            default:
+                return table.length() <= AsciiTableMatcher.SIZE
+                        ? new AsciiTableMatcher(table, description)
+                        : new BitSetMatcher(table, description);
+        }
+    }
+
     /** Sets bits in {@code table} matched by this matcher. */
     //@GwtIncompatible // used only from other GwtIncompatible code
     void setBits(BitSet table) {
@@ -853,6 +918,16 @@ public abstract class CharMatcher implements java.util.function.Predicate<Charac
 
     /** A matcher for which precomputation will not yield any significant benefit. */
     abstract static class FastMatcher extends CharMatcher {
+
+        @Override
+        public final CharMatcher precomputed() {
+            return this;
+        }
+
+        @Override
+        public CharMatcher negate() {
+            return new NegatedFastMatcher(this);
+        }
     }
 
     /** {@link FastMatcher} which overrides {@code toString()} with a custom name. */
@@ -896,6 +971,41 @@ public abstract class CharMatcher implements java.util.function.Predicate<Charac
         }
     }
 
+    /**
+     * Fast matcher of ASCII characters only, using a pair of 64-bit words as the table of
+     * matching characters.
+     */
+    private static final class AsciiTableMatcher extends NamedFastMatcher {
+
+        static final int SIZE = 128;
+
+        private final long low;
+        private final long high;
+
+        private AsciiTableMatcher(BitSet table, String description) {
+            super(description);
+            long[] words = table.toLongArray();
+            this.low = words.length > 0 ? words[0] : 0L;
+            this.high = words.length > 1 ? words[1] : 0L;
+        }
+
+        @Override
+        public boolean matches(char c) {
+            if (c < 64) {
+                return (low & (1L << c)) != 0;
+            }
+            if (c < SIZE) {
+                return (high & (1L << c)) != 0;
+            }
+            return false;
+        }
+
+        @Override
+        void setBits(BitSet bitSet) {
+            bitSet.or(BitSet.valueOf(new long[]{low, high}));
+        }
+    }
+
     // Static constant implementation classes
 
     /** Implementation of {@link #any()}. */
@@ -1431,6 +1541,19 @@ public abstract class CharMatcher implements java.util.function.Predicate<Charac
         }
     }
 
+    /** Negation of a {@link FastMatcher}. */
+    static class NegatedFastMatcher extends Negated {
+
+        NegatedFastMatcher(CharMatcher original) {
+            super(original);
+        }
+
+        @Override
+        public final CharMatcher precomputed() {
+            return this;
+        }
+    }
+
     /** Implementation of {@link #and(CharMatcher)}. */
     private static final class And extends CharMatcher {
 
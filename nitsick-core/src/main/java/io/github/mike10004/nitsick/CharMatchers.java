@@ -5,17 +5,26 @@ class CharMatchers {
     private CharMatchers(){}
 
     private static final CharMatcher DOT = CharMatcher.is('.');
-    private static final CharMatcher US_ENGLISH_ALPHABET = CharMatcher.inRange('a', 'z').or(CharMatcher.inRange('A', 'Z'));
+    private static final CharMatcher US_ENGLISH_ALPHABET = CharMatcher.inRange('a', 'z').or(CharMatcher.inRange('A', 'Z')).precomputed();
     private static final CharMatcher US_ENGLISH_DIGIT = CharMatcher.inRange('0', '9');
-    private static final CharMatcher US_ENGLISH_ALPHANUMERIC = US_ENGLISH_ALPHABET.or(US_ENGLISH_DIGIT);
+    private static final CharMatcher US_ENGLISH_ALPHANUMERIC = US_ENGLISH_ALPHABET.or(US_ENGLISH_DIGIT).precomputed();
     private static final CharMatcher UNDERSCORE = CharMatcher.is('_');
-    private static final CharMatcher REGEX_WORD = US_ENGLISH_ALPHANUMERIC.or(UNDERSCORE);
+    private static final CharMatcher REGEX_WORD = US_ENGLISH_ALPHANUMERIC.or(UNDERSCORE).precomputed();
+    private static final CharMatcher NON_REGEX_WORD = REGEX_WORD.negate();
 
     public static CharMatcher dot() {
         return DOT;
     }
 
+    public static CharMatcher usEnglishAlphabet() {
+        return US_ENGLISH_ALPHABET;
+    }
+
     public static CharMatcher usEnglishAlphanumericOrUnderscore() {
         return REGEX_WORD;
     }
+
+    public static CharMatcher nonUsEnglishAlphanumericOrUnderscore() {
+        return NON_REGEX_WORD;
+    }
 }
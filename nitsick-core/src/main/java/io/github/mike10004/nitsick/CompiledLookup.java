@@ -0,0 +1,34 @@
+package io.github.mike10004.nitsick;
+
+import javax.annotation.Nullable;
+import java.util.function.Function;
+
+/**
+ * Interface of a reusable handle that resolves the value of a setting
+ * identified by a fixed set of identifier aliases. Implementations may
+ * precompute whatever keys are necessary to perform the lookup, so that
+ * repeated lookups are cheaper than calls to {@link SettingSet#get(String)}.
+ * @see SettingSet#compile(String...)
+ */
+public interface CompiledLookup {
+
+    /**
+     * Gets the value of the setting.
+     * @return the value of the setting, or null if not defined
+     */
+    @Nullable
+    String get();
+
+    /**
+     * Parses the value of the setting. An empty string as a value
+     * is interpreted to mean the setting is not defined.
+     * @param parser value parser
+     * @param valueIfUndefined value to return if setting is not defined
+     * @param <T> type of the parsed value
+     * @return the parsed value
+     */
+    default <T, U extends T> T getTyped(Function<? super String, U> parser, @Nullable U valueIfUndefined) {
+        return Strings.parseNonEmpty(get(), parser, valueIfUndefined);
+    }
+
+}
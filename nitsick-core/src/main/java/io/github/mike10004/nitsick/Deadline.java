@@ -0,0 +1,205 @@
+package io.github.mike10004.nitsick;
+
+import javax.annotation.Nullable;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.BooleanSupplier;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Point in time by which an operation should finish, measured with
+ * {@link System#nanoTime()} so that it is unaffected by changes to the wall clock.
+ * A single deadline may be passed through nested operations, each of which
+ * polls the time remaining or takes a {@link #split(double) share} of it, so that
+ * the operations together do not exceed the original budget.
+ *
+ * <pre>{@code
+ * Deadline deadline = settings.timeouts().deadline(StandardTimeout.MEDIUM);
+ * startServer(deadline.split(0.5));
+ * while (!ready() && !deadline.isExpired()) {
+ *     // ...
+ * }
+ * }</pre>
+ *
+ * <p>Instances are immutable. Querying the time remaining does not allocate.
+ */
+public final class Deadline {
+
+    /*
+     * Durations are capped so that differences of nanoTime values never overflow.
+     */
+    private static final long MAX_NANOS = Long.MAX_VALUE / 4;
+
+    static final int SPIN_ITERATIONS = 100;
+    static final int YIELD_ITERATIONS = 20;
+    static final long MIN_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(1);
+    static final long MAX_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+
+    private final long deadlineNanos;
+
+    private Deadline(long deadlineNanos) {
+        this.deadlineNanos = deadlineNanos;
+    }
+
+    /**
+     * Creates a deadline that expires after a duration from now.
+     * @param duration the duration; negative durations are treated as zero
+     * @return a new deadline
+     */
+    public static Deadline after(Duration duration) {
+        requireNonNull(duration, "duration");
+        long nanos;
+        try {
+            nanos = duration.toNanos();
+        } catch (ArithmeticException e) {
+            nanos = duration.isNegative() ? 0 : MAX_NANOS;
+        }
+        return afterNanos(nanos);
+    }
+
+    /**
+     * Creates a deadline that expires after a number of nanoseconds from now.
+     * @param nanos the number of nanoseconds; negative values are treated as zero
+     * @return a new deadline
+     */
+    public static Deadline afterNanos(long nanos) {
+        return new Deadline(System.nanoTime() + clamp(nanos));
+    }
+
+    private static long clamp(long nanos) {
+        return Math.max(0, Math.min(nanos, MAX_NANOS));
+    }
+
+    /**
+     * Gets the number of nanoseconds until this deadline expires.
+     * @return the time remaining, or zero if expired
+     */
+    public long remainingNanos() {
+        long remaining = deadlineNanos - System.nanoTime();
+        return remaining > 0 ? remaining : 0;
+    }
+
+    /**
+     * Gets the time until this deadline expires.
+     * @return the time remaining, which is zero if expired
+     */
+    public Duration remaining() {
+        return Duration.ofNanos(remainingNanos());
+    }
+
+    /**
+     * Determines whether this deadline has expired.
+     * @return true if no time remains
+     */
+    public boolean isExpired() {
+        return deadlineNanos - System.nanoTime() <= 0;
+    }
+
+    /**
+     * Creates a deadline that expires after a fraction of the time remaining
+     * until this deadline, for a nested operation that should leave the rest
+     * of the budget to subsequent operations.
+     * @param fraction the fraction, in the range [0, 1]
+     * @return a new deadline that expires no later than this deadline
+     */
+    public Deadline split(double fraction) {
+        if (!(fraction >= 0 && fraction <= 1)) {
+            throw new IllegalArgumentException("fraction must be in range [0, 1]: " + fraction);
+        }
+        if (fraction == 1) {
+            return this;
+        }
+        long now = System.nanoTime();
+        long remaining = Math.max(0, deadlineNanos - now);
+        return new Deadline(now + Math.min(remaining, (long) (remaining * fraction)));
+    }
+
+    /**
+     * Returns whichever of this deadline and another expires first.
+     * @param other the other deadline
+     * @return the earlier deadline
+     */
+    public Deadline min(Deadline other) {
+        return deadlineNanos - other.deadlineNanos <= 0 ? this : other;
+    }
+
+    /**
+     * Waits until a condition is true or this deadline expires.
+     * @param condition the condition
+     * @return true if the condition became true, false if the deadline expired first
+     * @throws InterruptedException if the current thread is interrupted while waiting
+     * @see #await(BooleanSupplier, WakeupSignal)
+     */
+    public boolean await(BooleanSupplier condition) throws InterruptedException {
+        return await(condition, null);
+    }
+
+    /**
+     * Waits until a condition is true or this deadline expires. The condition is
+     * checked in a busy loop at first, then between yields of the processor, and
+     * then between parks of the current thread whose lengths double from
+     * one microsecond up to ten milliseconds, so that a condition that becomes
+     * true quickly is detected with little latency, while a long wait does not
+     * occupy a processor. The condition is checked once more when the deadline
+     * expires.
+     * @param condition the condition
+     * @param signal signal that wakes the current thread to check the condition early, or null
+     * @return true if the condition became true, false if the deadline expired first
+     * @throws InterruptedException if the current thread is interrupted while waiting
+     */
+    public boolean await(BooleanSupplier condition, @Nullable WakeupSignal signal) throws InterruptedException {
+        requireNonNull(condition, "condition");
+        if (condition.getAsBoolean()) {
+            return true;
+        }
+        for (int i = 0; i < SPIN_ITERATIONS; i++) {
+            if (condition.getAsBoolean()) {
+                return true;
+            }
+            if (isExpired()) {
+                return condition.getAsBoolean();
+            }
+        }
+        for (int i = 0; i < YIELD_ITERATIONS; i++) {
+            Thread.yield();
+            if (condition.getAsBoolean()) {
+                return true;
+            }
+            if (isExpired()) {
+                return condition.getAsBoolean();
+            }
+        }
+        Thread waiter = Thread.currentThread();
+        if (signal != null) {
+            signal.register(waiter);
+        }
+        try {
+            long parkNanos = MIN_PARK_NANOS;
+            while (true) {
+                long remaining = remainingNanos();
+                if (remaining == 0) {
+                    return condition.getAsBoolean();
+                }
+                LockSupport.parkNanos(this, Math.min(parkNanos, remaining));
+                if (Thread.interrupted()) {
+                    throw new InterruptedException();
+                }
+                if (condition.getAsBoolean()) {
+                    return true;
+                }
+                parkNanos = Math.min(parkNanos * 2, MAX_PARK_NANOS);
+            }
+        } finally {
+            if (signal != null) {
+                signal.deregister(waiter);
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "Deadline{remaining=" + remaining() + "}";
+    }
+}
@@ -0,0 +1,249 @@
+package io.github.mike10004.nitsick;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.function.UnaryOperator;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Layer that provides access to settings defined by the files in a directory.
+ * Each regular file defines a setting whose key is the file name and whose value
+ * is the content of the file, decoded as UTF-8, with one trailing line terminator
+ * removed. Files whose names start with a dot are ignored.
+ *
+ * <p>The directory is listed at construction, and the content of each file is read
+ * when its key is first requested. The directory is watched for changes by a daemon
+ * thread, which re-reads modified files that had already been read. Values are held
+ * in an immutable map that is replaced atomically on each change, so a request
+ * for a key blocks on I/O only the first time the key is requested.
+ * Subscribers are notified on the watching thread of the keys of files that
+ * were created, modified, or deleted. Close the layer to stop watching the directory.
+ */
+public class DirectoryLayer implements SettingLayer, Closeable {
+
+    private final Path directory;
+    /*
+     * Map of key to either the value, if the file has been read, or an Unread token.
+     * A new token is installed for each change to a file, so a reader installs
+     * the value it read only if the token it saw before reading is still present.
+     */
+    private final AtomicReference<Map<String, Object>> values;
+    private final WatchService watchService;
+    private final ChangeNotifier notifier = new ChangeNotifier();
+
+    /**
+     * Constructs an instance and starts watching the directory.
+     * @param directory the directory
+     * @throws IOException if the directory cannot be listed or watched
+     */
+    public DirectoryLayer(Path directory) throws IOException {
+        this.directory = requireNonNull(directory, "directory");
+        this.values = new AtomicReference<>(list());
+        watchService = directory.getFileSystem().newWatchService();
+        try {
+            directory.register(watchService, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE);
+        } catch (IOException | RuntimeException e) {
+            watchService.close();
+            throw e;
+        }
+        Thread watcher = new Thread(this::watch, "DirectoryLayer-" + directory.getFileName());
+        watcher.setDaemon(true);
+        watcher.start();
+    }
+
+    private Map<String, Object> list() throws IOException {
+        Map<String, Object> listed = new HashMap<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+            for (Path file : files) {
+                String key = file.getFileName().toString();
+                if (isSettingFile(key, file)) {
+                    listed.put(key, new Unread());
+                }
+            }
+        }
+        return Collections.unmodifiableMap(listed);
+    }
+
+    private static boolean isSettingFile(String name, Path file) {
+        return !name.startsWith(".") && Files.isRegularFile(file);
+    }
+
+    @Override
+    public String apply(String key) {
+        Object value = values.get().get(key);
+        if (value instanceof Unread) {
+            String loaded = read(key);
+            update(map -> map.get(key) == value ? with(map, key, loaded) : map);
+            return loaded;
+        }
+        return (String) value;
+    }
+
+    /**
+     * Captures the settings whose keys start with a prefix.
+     * Files that have not yet been read are read.
+     * @param keyPrefix the key prefix
+     * @return a new map
+     */
+    @Override
+    public Map<String, String> capture(String keyPrefix) {
+        Map<String, String> captured = new LinkedHashMap<>();
+        for (String key : values.get().keySet()) {
+            if (key.startsWith(keyPrefix)) {
+                String value = apply(key);
+                if (value != null) {
+                    captured.put(key, value);
+                }
+            }
+        }
+        return captured;
+    }
+
+    @Override
+    public Subscription subscribe(Consumer<? super Set<String>> listener) {
+        return notifier.subscribe(listener);
+    }
+
+    /**
+     * Reads the content of a file.
+     * @return the value, or null if the file does not exist
+     */
+    String read(String key) {
+        byte[] bytes;
+        try {
+            bytes = Files.readAllBytes(directory.resolve(key));
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        String content = new String(bytes, StandardCharsets.UTF_8);
+        if (content.endsWith("\r\n")) {
+            return content.substring(0, content.length() - 2);
+        }
+        if (content.endsWith("\n") || content.endsWith("\r")) {
+            return content.substring(0, content.length() - 1);
+        }
+        return content;
+    }
+
+    private void update(UnaryOperator<Map<String, Object>> updater) {
+        Map<String, Object> current, updated;
+        do {
+            current = values.get();
+            updated = updater.apply(current);
+        } while (updated != current && !values.compareAndSet(current, updated));
+    }
+
+    private static Map<String, Object> with(Map<String, Object> map, String key, Object value) {
+        Map<String, Object> copy = new HashMap<>(map);
+        if (value == null) {
+            copy.remove(key);
+        } else {
+            copy.put(key, value);
+        }
+        return Collections.unmodifiableMap(copy);
+    }
+
+    private void watch() {
+        try {
+            while (true) {
+                WatchKey watchKey = watchService.take();
+                Set<String> changed = new HashSet<>();
+                for (WatchEvent<?> event : watchKey.pollEvents()) {
+                    if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                        reloadAll(changed);
+                    } else {
+                        Path file = (Path) event.context();
+                        handle(event.kind(), file.toString(), changed);
+                    }
+                }
+                boolean valid = watchKey.reset();
+                if (!valid) {
+                    changed.addAll(values.getAndSet(Collections.emptyMap()).keySet());
+                }
+                notifier.publish(changed);
+                if (!valid) {
+                    return;
+                }
+            }
+        } catch (InterruptedException | ClosedWatchServiceException ignore) {
+        }
+    }
+
+    private void handle(WatchEvent.Kind<?> kind, String key, Set<String> changed) {
+        if (kind == StandardWatchEventKinds.ENTRY_DELETE || !isSettingFile(key, directory.resolve(key))) {
+            if (values.get().containsKey(key)) {
+                update(map -> map.containsKey(key) ? with(map, key, null) : map);
+                changed.add(key);
+            }
+            return;
+        }
+        changed.add(key);
+        Object previous = values.get().get(key);
+        if (previous instanceof String) {
+            Object value = readQuietly(key);
+            update(map -> with(map, key, value));
+        } else {
+            Unread token = new Unread();
+            update(map -> with(map, key, token));
+        }
+    }
+
+    private Object readQuietly(String key) {
+        try {
+            return read(key);
+        } catch (UncheckedIOException e) {
+            return new Unread();
+        }
+    }
+
+    private void reloadAll(Set<String> changed) {
+        try {
+            Map<String, Object> listed = list();
+            changed.addAll(values.getAndSet(listed).keySet());
+            changed.addAll(listed.keySet());
+        } catch (IOException ignore) {
+        }
+    }
+
+    /**
+     * Stops watching the directory. Values already read remain available.
+     * @throws IOException if closing the watch service fails
+     */
+    @Override
+    public void close() throws IOException {
+        watchService.close();
+    }
+
+    @Override
+    public String toString() {
+        return "DirectoryLayer{directory=" + directory + "}";
+    }
+
+    /**
+     * Placeholder for the value of a file that has been listed but not read since it last changed.
+     */
+    private static final class Unread {
+    }
+}
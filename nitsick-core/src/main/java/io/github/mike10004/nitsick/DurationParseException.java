@@ -0,0 +1,43 @@
+package io.github.mike10004.nitsick;
+
+import org.apache.commons.lang3.StringUtils;
+
+/**
+ * Exception thrown when a duration definition in human-friendly syntax is malformed.
+ * @see Durations#parseDuration(String)
+ */
+public class DurationParseException extends IllegalArgumentException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final String parsedString;
+    private final int errorOffset;
+
+    /**
+     * Constructs an instance.
+     * @param reason description of the problem
+     * @param parsedString the definition that was being parsed
+     * @param errorOffset offset in the definition at which the problem was detected
+     */
+    public DurationParseException(String reason, String parsedString, int errorOffset) {
+        super(reason + " at offset " + errorOffset + " in \"" + StringUtils.abbreviate(parsedString, 128) + "\"");
+        this.parsedString = parsedString;
+        this.errorOffset = errorOffset;
+    }
+
+    /**
+     * Gets the definition that was being parsed.
+     * @return the definition
+     */
+    public String getParsedString() {
+        return parsedString;
+    }
+
+    /**
+     * Gets the offset in the definition at which the problem was detected.
+     * @return the offset
+     */
+    public int getErrorOffset() {
+        return errorOffset;
+    }
+}
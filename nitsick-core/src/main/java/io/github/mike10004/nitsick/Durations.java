@@ -10,8 +10,7 @@ import java.util.concurrent.TimeUnit;
  */
 public class Durations {
 
-    private static final CharMatcher NUMBERS = CharMatcher.inRange('0', '9');
-    private static final CharMatcher LETTERS = CharMatcher.inRange('a', 'z').or(CharMatcher.inRange('A', 'Z'));
+    private static final CharMatcher LETTERS = CharMatchers.usEnglishAlphabet();
 
     /**
      * Parses a duration specified in standard or human-friendly syntax.
@@ -24,48 +23,244 @@ public class Durations {
 
     /**
      * Parses a duration specified in standard or human-friendly syntax.
-     * Standard syntax is that which is accepted by {@link Duration#parse}.
-     * If that method throws {@code DateTimeParseException}, then this method
-     * attempts to parse using a human-friendly syntax.
-     * Human-friendly syntax is of the form {@code Nu}, where {@code N} is an integer
-     * and {@code u} is an optional unit, assumed to be milliseconds if absent.
-     * The unit is parsed with {@link #parseUnit(String, TimeUnit)}.
+     * Standard syntax is that which is accepted by {@link Duration#parse}, and
+     * is recognized by an initial {@code P}, optionally preceded by a sign.
+     * Human-friendly syntax is a sequence of one or more segments of the form {@code Nu},
+     * where {@code N} is a decimal number, possibly with a fractional part, and {@code u}
+     * is a unit, as parsed by {@link #parseUnit(String, TimeUnit)}. Examples are
+     * {@code 500ms}, {@code 1.5s}, {@code 250us}, and {@code 1m30s}. If the definition
+     * is a single number with no unit, the unit is assumed to be milliseconds.
+     * The definition may begin with a sign, which applies to the sum of all segments,
+     * and whitespace between numbers and units is ignored.
+     * Human-friendly definitions are parsed in a single pass, without creating
+     * intermediate strings, into a duration with nanosecond precision. Digits of
+     * fractional parts beyond nanosecond precision are truncated.
      * @param definition the definition
      * @param defaultValue value to use if definition is null or empty
      * @return a duration instance
+     * @throws java.time.format.DateTimeParseException if the definition uses malformed standard syntax
+     * @throws DurationParseException if the definition uses malformed human-friendly syntax
      */
     public static Duration parseDuration(String definition, Duration defaultValue) {
         if (definition != null && !definition.isEmpty()) {
-            try {
-                return Duration.parse(definition); // support standard duration syntax
-            } catch (java.time.format.DateTimeParseException ignore) {
+            if (isStandardSyntax(definition)) {
+                return Duration.parse(definition);
             }
-            // then fall back to lax syntax
-            definition = CharMatcher.whitespace().removeFrom(definition);
-            String numbers = LETTERS.trimTrailingFrom(definition);
-            String unitToken = NUMBERS.trimLeadingFrom(definition);
-            TimeUnit unit = parseUnit(unitToken, TimeUnit.MILLISECONDS);
-            long magnitude = Long.parseLong(numbers);
-            long millis = unit.toMillis(magnitude);
-            return Duration.ofMillis(millis);
+            return parseLaxDuration(definition);
         }
         return defaultValue;
     }
 
+    private static boolean isStandardSyntax(String definition) {
+        char ch = definition.charAt(0);
+        if ((ch == '-' || ch == '+') && definition.length() > 1) {
+            ch = definition.charAt(1);
+        }
+        return ch == 'P' || ch == 'p';
+    }
+
+    /*
+     * Maximum number of fractional digits considered. With this limit, the products
+     * computed when scaling a fraction by a unit cannot overflow.
+     */
+    private static final int MAX_FRACTION_DIGITS = 13;
+
+    private static final long NANOS_PER_SECOND = 1_000_000_000L;
+
+    private static Duration parseLaxDuration(String definition) {
+        int length = definition.length();
+        int i = skipWhitespace(definition, 0);
+        boolean negative = false;
+        if (i < length && (definition.charAt(i) == '-' || definition.charAt(i) == '+')) {
+            negative = definition.charAt(i) == '-';
+            i = skipWhitespace(definition, i + 1);
+        }
+        if (i == length) {
+            throw new DurationParseException("expected number", definition, i);
+        }
+        long seconds = 0, nanos = 0;
+        int segments = 0;
+        while (i < length) {
+            int numberStart = i;
+            long whole = 0;
+            for (; i < length && isDigit(definition.charAt(i)); i++) {
+                int digit = definition.charAt(i) - '0';
+                if (whole > (Long.MAX_VALUE - digit) / 10) {
+                    throw new DurationParseException("number too large", definition, numberStart);
+                }
+                whole = whole * 10 + digit;
+            }
+            if (i == length && segments == 0) {
+                // plain number of milliseconds, the most common form
+                return Duration.ofMillis(negative ? -whole : whole);
+            }
+            boolean hasWhole = i > numberStart;
+            long fraction = 0;
+            int fractionDigits = 0;
+            if (i < length && definition.charAt(i) == '.') {
+                i++;
+                int fractionStart = i;
+                for (; i < length && isDigit(definition.charAt(i)); i++) {
+                    if (fractionDigits < MAX_FRACTION_DIGITS) {
+                        fraction = fraction * 10 + (definition.charAt(i) - '0');
+                        fractionDigits++;
+                    }
+                }
+                if (i == fractionStart && !hasWhole) {
+                    throw new DurationParseException("expected digit", definition, i);
+                }
+            } else if (!hasWhole) {
+                throw new DurationParseException("expected number", definition, i);
+            }
+            i = skipWhitespace(definition, i);
+            int unitStart = i;
+            while (i < length && LETTERS.matches(definition.charAt(i))) {
+                i++;
+            }
+            int unitEnd = i;
+            TimeUnit unit;
+            if (unitStart == unitEnd) {
+                if (unitStart < length) {
+                    throw new DurationParseException("unexpected character", definition, unitStart);
+                }
+                if (segments > 0) {
+                    throw new DurationParseException("expected unit", definition, unitStart);
+                }
+                unit = TimeUnit.MILLISECONDS;
+            } else {
+                unit = matchUnit(definition, unitStart, unitEnd);
+                if (unit == null) {
+                    throw new DurationParseException("unrecognized unit", definition, unitStart);
+                }
+            }
+            try {
+                if (unit.compareTo(TimeUnit.SECONDS) >= 0) {
+                    long unitSeconds = unit.toSeconds(1);
+                    seconds = Math.addExact(seconds, Math.multiplyExact(whole, unitSeconds));
+                    long fractionSeconds = fraction * unitSeconds;
+                    long scale = POWERS_OF_TEN[fractionDigits];
+                    seconds = Math.addExact(seconds, fractionSeconds / scale);
+                    nanos += rescale(fractionSeconds % scale, fractionDigits, 9);
+                } else {
+                    long unitNanos = unit.toNanos(1);
+                    nanos = Math.addExact(nanos, Math.multiplyExact(whole, unitNanos));
+                    nanos += rescale(fraction, fractionDigits, log10(unitNanos));
+                }
+                seconds = Math.addExact(seconds, nanos / NANOS_PER_SECOND);
+                nanos %= NANOS_PER_SECOND;
+            } catch (ArithmeticException e) {
+                throw new DurationParseException("duration too large", definition, numberStart);
+            }
+            segments++;
+            i = skipWhitespace(definition, i);
+        }
+        Duration duration = Duration.ofSeconds(seconds, nanos);
+        return negative ? duration.negated() : duration;
+    }
+
+    private static final long[] POWERS_OF_TEN = {
+            1L, 10L, 100L, 1_000L, 10_000L, 100_000L, 1_000_000L, 10_000_000L, 100_000_000L,
+            1_000_000_000L, 10_000_000_000L, 100_000_000_000L, 1_000_000_000_000L, 10_000_000_000_000L,
+    };
+
+    /**
+     * Converts a number of units of magnitude 10^-fromExponent into
+     * units of magnitude 10^-toExponent, truncating.
+     */
+    private static long rescale(long value, int fromExponent, int toExponent) {
+        if (fromExponent <= toExponent) {
+            return value * POWERS_OF_TEN[toExponent - fromExponent];
+        }
+        return value / POWERS_OF_TEN[fromExponent - toExponent];
+    }
+
+    /**
+     * Returns the base-10 logarithm of a power of ten.
+     */
+    private static int log10(long powerOfTen) {
+        int exponent = 0;
+        while (powerOfTen > 1) {
+            powerOfTen /= 10;
+            exponent++;
+        }
+        return exponent;
+    }
+
+    private static boolean isDigit(char ch) {
+        return ch >= '0' && ch <= '9';
+    }
+
+    private static int skipWhitespace(String definition, int start) {
+        int i = start;
+        while (i < definition.length() && CharMatcher.whitespace().matches(definition.charAt(i))) {
+            i++;
+        }
+        return i;
+    }
+
+    private static IllegalArgumentException unrecognizedUnitException(String unitToken) {
+        return new IllegalArgumentException("failed to parse unit: " + StringUtils.abbreviate(unitToken, 128));
+    }
+
+    /**
+     * Unit names, grouped by the unit they represent, that are accepted in addition
+     * to the names of {@link TimeUnit} constants.
+     */
+    private static final String[][] UNIT_ALIASES = {
+            {"ns", "nano", "nanos", "nanosec", "nanosecs", "nanosecond"},
+            {"us", "micro", "micros", "microsec", "microsecs", "microsecond"},
+            {"ms", "milli", "millis", "milliseconds", "millisecs", "millisec", "millisecond"},
+            {"s", "sec", "secs", "seconds", "second"},
+            {"m", "min", "mins", "minutes", "minute"},
+            {"h", "hr", "hrs", "hour"},
+            {"d", "day"},
+    };
+
+    private static final TimeUnit[] ALIASED_UNITS = {
+            TimeUnit.NANOSECONDS,
+            TimeUnit.MICROSECONDS,
+            TimeUnit.MILLISECONDS,
+            TimeUnit.SECONDS,
+            TimeUnit.MINUTES,
+            TimeUnit.HOURS,
+            TimeUnit.DAYS,
+    };
+
+    private static final TimeUnit[] ALL_UNITS = TimeUnit.values();
+
+    /**
+     * Matches a region of a string, ignoring case, against the acceptable unit names.
+     * @return the unit, or null if the region does not match any unit name
+     */
+    private static TimeUnit matchUnit(String token, int start, int end) {
+        int length = end - start;
+        for (int u = 0; u < UNIT_ALIASES.length; u++) {
+            for (String alias : UNIT_ALIASES[u]) {
+                if (alias.length() == length && token.regionMatches(true, start, alias, 0, length)) {
+                    return ALIASED_UNITS[u];
+                }
+            }
+        }
+        for (TimeUnit unit : ALL_UNITS) {
+            String name = unit.name();
+            if (name.length() == length && token.regionMatches(true, start, name, 0, length)) {
+                return unit;
+            }
+        }
+        return null;
+    }
+
     /**
      * Parses a time unit.
-     * Acceptable unit definitions are the following:
+     * Acceptable unit definitions are the following, in any case:
      * <ul>
-     *     <li>ms</li>
-     *     <li>millis</li>
-     *     <li>milliseconds</li>
-     *     <li>s</li>
-     *     <li>sec</li>
-     *     <li>secs</li>
-     *     <li>seconds</li>
-     *     <li>m</li>
-     *     <li>min</li>
-     *     <li>minutes</li>
+     *     <li>ns, nano, nanos, nanosec, nanosecs, nanosecond</li>
+     *     <li>us, micro, micros, microsec, microsecs, microsecond</li>
+     *     <li>ms, milli, millis, millisec, millisecs, millisecond, milliseconds</li>
+     *     <li>s, sec, secs, second, seconds</li>
+     *     <li>m, min, mins, minute, minutes</li>
+     *     <li>h, hr, hrs, hour</li>
+     *     <li>d, day</li>
      * </ul>
      * Any string parseable by {@link TimeUnit#valueOf(String)} is also acceptable.
      * @param unitToken the unit definition
@@ -77,31 +272,11 @@ public class Durations {
         if (unitToken == null || unitToken.isEmpty()) {
             return defaultValue;
         }
-        unitToken = unitToken.toLowerCase();
-        switch (unitToken) {
-            case "ms":
-            case "milli":
-            case "millis":
-            case "milliseconds":
-            case "millisecs":
-            case "millisec":
-                return TimeUnit.MILLISECONDS;
-            case "s":
-            case "sec":
-            case "secs":
-            case "seconds":
-                return TimeUnit.SECONDS;
-            case "m":
-            case "min":
-            case "mins":
-            case "minutes":
-                return TimeUnit.MINUTES;
-        }
-        try {
-            return TimeUnit.valueOf(unitToken.toUpperCase());
-        } catch (IllegalArgumentException e) {
-            throw new IllegalArgumentException("failed to parse unit: " + StringUtils.abbreviate(unitToken, 128), e);
+        TimeUnit unit = matchUnit(unitToken, 0, unitToken.length());
+        if (unit == null) {
+            throw unrecognizedUnitException(unitToken);
         }
+        return unit;
     }
 
 }
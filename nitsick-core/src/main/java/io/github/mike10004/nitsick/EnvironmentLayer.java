@@ -1,21 +1,210 @@
 package io.github.mike10004.nitsick;
 
+import javax.annotation.Nullable;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.stream.Stream;
 
+import static java.util.Objects.requireNonNull;
+
 class EnvironmentLayer extends KeyTransformingLayer {
 
-    private static final EnvironmentLayer INSTANCE = new EnvironmentLayer(System::getenv);
+    /*
+     * Environment variable names are case-insensitive on Windows, where System.getenv(String)
+     * may find a variable whose name differs in case from the name in System.getenv().
+     */
+    private static final EnvironmentLayer INSTANCE = new EnvironmentLayer(System::getenv, System.getenv(),
+            System.getProperty("os.name", "").startsWith("Windows"));
+
+    private final Function<String, String> getenv;
+
+    private final boolean fallBackOnIndexMiss;
+
+    @Nullable
+    private final Map<String, String> environment;
+
+    @Nullable
+    private final StringTable canonicalIndex;
 
     public EnvironmentLayer(Function<String, String> getenv) {
         super(getenv, EnvironmentLayer::transformToEnvironmentVariables);
+        this.getenv = getenv;
+        fallBackOnIndexMiss = true;
+        environment = null;
+        canonicalIndex = null;
+    }
+
+    /**
+     * Constructs an instance that provides access to a map of environment variables.
+     * Unlike a layer constructed with a getter function, this layer supports
+     * {@link #capture(String) capture}. The map is indexed by canonical key at
+     * construction, so it is assumed not to change afterward, as is the case
+     * for the map returned by {@link System#getenv()}.
+     * @param environment map of environment variable names to values
+     */
+    public EnvironmentLayer(Map<String, String> environment) {
+        this(environment::get, environment, false);
+    }
+
+    /**
+     * Constructs an instance that looks up single variables with a getter function
+     * and uses a map of environment variables to index canonical keys and to
+     * support {@link #capture(String) capture}. Lookups of canonical keys that miss
+     * the index are delegated to the getter, so a getter that matches names
+     * case-insensitively, as {@link System#getenv(String)} does on Windows, is honored.
+     * @param getenv getter of a single environment variable
+     * @param environment map of environment variable names to values
+     */
+    EnvironmentLayer(Function<String, String> getenv, Map<String, String> environment) {
+        this(getenv, environment, true);
+    }
+
+    /**
+     * Constructs an instance.
+     * @param getenv getter of a single environment variable
+     * @param environment map of environment variable names to values
+     * @param fallBackOnIndexMiss whether the getter may find a variable for a canonical key
+     *                            that is not in the index, which is only possible if the getter
+     *                            and the map disagree, as on Windows
+     */
+    private EnvironmentLayer(Function<String, String> getenv, Map<String, String> environment, boolean fallBackOnIndexMiss) {
+        super(getenv, EnvironmentLayer::transformToEnvironmentVariables);
+        this.getenv = requireNonNull(getenv);
+        this.fallBackOnIndexMiss = fallBackOnIndexMiss;
+        this.environment = requireNonNull(environment);
+        this.canonicalIndex = new StringTable(capture(""));
+    }
+
+    /**
+     * Gets the value of the environment variable that corresponds to a key.
+     * If the key is in canonical form, the value is found with a single probe of the index
+     * built at construction, without transforming the key; a canonical key that is not in
+     * the index is undefined unless the getter may disagree with the indexed map. Otherwise,
+     * the key is transformed to a variable name without creating a stream and the
+     * variable is looked up with the getter.
+     * @param key the key
+     * @return the value of the corresponding environment variable, or null if undefined
+     */
+    @Override
+    public String apply(String key) {
+        if (canonicalIndex != null && isCanonicalKey(key)) {
+            String value = canonicalIndex.get(key);
+            if (value != null || !fallBackOnIndexMiss) {
+                return value;
+            }
+        }
+        return getenv.apply(transformToEnvironmentVariable(key));
+    }
+
+    @Override
+    public Supplier<String> bind(String key) {
+        if (canonicalIndex != null && isCanonicalKey(key)) {
+            if (!fallBackOnIndexMiss) {
+                return () -> canonicalIndex.get(key);
+            }
+            String variable = transformToEnvironmentVariable(key);
+            return () -> {
+                String value = canonicalIndex.get(key);
+                return value != null ? value : getenv.apply(variable);
+            };
+        }
+        return super.bind(key);
+    }
+
+    /**
+     * Determines whether a key is in canonical form, meaning it is composed of
+     * lowercase letters, digits, and interior dots. The environment variable
+     * that corresponds to a canonical key is the uppercase key with dots replaced
+     * by underscores.
+     * @param key the key
+     * @return true if the key is canonical
+     * @see #toCanonicalKey(String)
+     */
+    static boolean isCanonicalKey(String key) {
+        int length = key.length();
+        if (length == 0 || key.charAt(0) == '.' || key.charAt(length - 1) == '.') {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            char ch = key.charAt(i);
+            if (!((ch >= 'a' && ch <= 'z') || (ch >= '0' && ch <= '9') || ch == '.')) {
+                return false;
+            }
+        }
+        return true;
     }
 
     public static Stream<String> transformToEnvironmentVariables(String systemPropertyName) {
+        return Stream.of(transformToEnvironmentVariable(systemPropertyName));
+    }
+
+    static String transformToEnvironmentVariable(String systemPropertyName) {
         systemPropertyName = CharMatchers.dot().trimFrom(systemPropertyName);
         String primary = CharMatchers.dot().replaceFrom(systemPropertyName, '_').toUpperCase();
-        primary = CharMatchers.usEnglishAlphanumericOrUnderscore().negate().removeFrom(primary);
-        return Stream.of(primary);
+        primary = CharMatchers.nonUsEnglishAlphanumericOrUnderscore().removeFrom(primary);
+        return primary;
+    }
+
+    /**
+     * Transforms an environment variable name into the canonical key that maps to it.
+     * The canonical key is the lowercase name with underscores replaced by dots.
+     * Only names composed of uppercase letters, digits, and interior underscores
+     * have a canonical key, because only those names are produced by
+     * {@link #transformToEnvironmentVariable(String)} from a canonical key.
+     * @param environmentVariableName the environment variable name
+     * @return the canonical key, or null if the name has no canonical key
+     */
+    @Nullable
+    static String toCanonicalKey(String environmentVariableName) {
+        int length = environmentVariableName.length();
+        if (length == 0 || environmentVariableName.charAt(0) == '_' || environmentVariableName.charAt(length - 1) == '_') {
+            return null;
+        }
+        char[] key = new char[length];
+        for (int i = 0; i < length; i++) {
+            char ch = environmentVariableName.charAt(i);
+            if (ch >= 'A' && ch <= 'Z') {
+                key[i] = (char) (ch - 'A' + 'a');
+            } else if ((ch >= '0' && ch <= '9')) {
+                key[i] = ch;
+            } else if (ch == '_') {
+                key[i] = '.';
+            } else {
+                return null;
+            }
+        }
+        return new String(key);
+    }
+
+    /**
+     * Captures the environment variables that correspond to keys with the given prefix.
+     * Each variable is captured under the key formed by the prefix followed by
+     * the canonical form of the remainder of the variable name.
+     * @param keyPrefix the key prefix
+     * @return a new map, or null if this layer was constructed with a getter function
+     */
+    @Override
+    public Map<String, String> capture(String keyPrefix) {
+        if (environment == null) {
+            return null;
+        }
+        String variablePrefix = keyPrefix.isEmpty() ? "" : transformToEnvironmentVariable(keyPrefix);
+        if (!variablePrefix.isEmpty() && keyPrefix.endsWith(".")) {
+            variablePrefix += "_";
+        }
+        Map<String, String> captured = new LinkedHashMap<>();
+        for (Map.Entry<String, String> entry : environment.entrySet()) {
+            String name = entry.getKey();
+            if (name.startsWith(variablePrefix)) {
+                String suffix = toCanonicalKey(name.substring(variablePrefix.length()));
+                if (suffix != null) {
+                    captured.put(keyPrefix + suffix, entry.getValue());
+                }
+            }
+        }
+        return captured;
     }
 
     public static SettingLayer getInstance() {
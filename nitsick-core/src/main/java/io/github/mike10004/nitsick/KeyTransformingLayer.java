@@ -1,7 +1,8 @@
 package io.github.mike10004.nitsick;
 
-import java.util.Objects;
+import java.util.Iterator;
 import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.stream.Stream;
 
 import static java.util.Objects.requireNonNull;
@@ -31,11 +32,34 @@ public class KeyTransformingLayer extends ForwardingLayer {
      */
     @Override
     public String apply(String key) {
-        Stream<String> transformedKeys = keyTransform.apply(key);
-        return transformedKeys.map(super::apply)
-                .filter(Objects::nonNull)
-                .findFirst()
-                .orElse(null);
+        Iterator<String> transformedKeys = keyTransform.apply(key).iterator();
+        while (transformedKeys.hasNext()) {
+            String value = super.apply(transformedKeys.next());
+            if (value != null) {
+                return value;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Binds a key to this layer. The key is transformed once, at binding time,
+     * and the supplier applies the underlying function to each output key.
+     * @param key the un-transformed key
+     * @return a supplier of the first non-null output of the underlying function
+     */
+    @Override
+    public Supplier<String> bind(String key) {
+        String[] transformedKeys = keyTransform.apply(key).toArray(String[]::new);
+        return () -> {
+            for (String transformedKey : transformedKeys) {
+                String value = super.apply(transformedKey);
+                if (value != null) {
+                    return value;
+                }
+            }
+            return null;
+        };
     }
 
 }
@@ -1,22 +1,100 @@
 package io.github.mike10004.nitsick;
 
+import javax.annotation.Nullable;
+import java.lang.ref.WeakReference;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
-import java.util.stream.Collectors;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.stream.Stream;
 
 import static java.util.Objects.requireNonNull;
 
 public class LayeredSettingSet implements SettingSet {
 
+    /**
+     * Delay between the first notification of a change to a watched setting
+     * and the delivery of the new value. Changes that arrive during the delay
+     * are coalesced into a single delivery.
+     */
+    static final long WATCH_DEBOUNCE_NANOS = TimeUnit.MILLISECONDS.toNanos(50);
+
     private final String domain;
     private final List<SettingLayer> layers;
+    private final SettingLayer[] layerArray;
+    @Nullable
+    private final ParsedValueCache parsedValueCache;
+    @Nullable
+    private final LookupMetrics metrics;
+    @Nullable
+    private final LookupMetrics.Stats[] layerStats;
 
     public LayeredSettingSet(String domain, List<SettingLayer> layers) {
+        this(domain, layers, null, null);
+    }
+
+    private LayeredSettingSet(String domain, List<SettingLayer> layers, @Nullable ParsedValueCache parsedValueCache, @Nullable LookupMetrics metrics) {
         this.domain = requireNonNull(domain, "domain");
         this.layers = Collections.unmodifiableList(new ArrayList<>(layers));
+        this.layerArray = this.layers.toArray(new SettingLayer[0]);
+        this.parsedValueCache = parsedValueCache;
+        this.metrics = metrics;
+        this.layerStats = metrics == null ? null : layerStats(metrics, layerArray);
+    }
+
+    private static LookupMetrics.Stats[] layerStats(LookupMetrics metrics, SettingLayer[] layers) {
+        LookupMetrics.Stats[] stats = new LookupMetrics.Stats[layers.length];
+        for (int i = 0; i < layers.length; i++) {
+            stats[i] = metrics.layerStats(layers[i]);
+        }
+        return stats;
+    }
+
+    /**
+     * Returns a setting set with the same domain and layers as this one that
+     * caches values produced by the parsers passed to the {@code getTyped} methods.
+     * The cache may be shared among setting sets.
+     * @param parsedValueCache the cache
+     * @return a new setting set instance
+     */
+    public LayeredSettingSet withParsedValueCache(ParsedValueCache parsedValueCache) {
+        return new LayeredSettingSet(domain, layers, requireNonNull(parsedValueCache, "parsedValueCache"), metrics);
+    }
+
+    /**
+     * Returns a setting set with the same domain, layers, and options as this one
+     * that records lookups in the given metrics. Lookups are recorded under the
+     * first identifier alias. Without metrics, the only cost is a check of a field.
+     * @param metrics the metrics
+     * @return a new setting set instance
+     */
+    public LayeredSettingSet withMetrics(LookupMetrics metrics) {
+        return new LayeredSettingSet(domain, layers, parsedValueCache, requireNonNull(metrics, "metrics"));
+    }
+
+    /**
+     * Returns a setting set with the same domain and options as this one
+     * whose layers are the given layer followed by the layers of this set.
+     * @param layer the layer of highest precedence, such as a {@link ScopedOverrideLayer}
+     * @return a new setting set instance
+     */
+    public LayeredSettingSet withTopLayer(SettingLayer layer) {
+        return new LayeredSettingSet(domain, Lists.asList(requireNonNull(layer, "layer"), layers), parsedValueCache, metrics);
     }
 
     /**
@@ -49,30 +127,246 @@ public class LayeredSettingSet implements SettingSet {
      */
     protected String toKey(String subSection) {
         requireNonNull(subSection, "subSection");
-        return toKey(Collections.singletonList(subSection));
+        StringBuilder key = new StringBuilder(domain.length() + 1 + subSection.length());
+        appendSection(key, domain);
+        appendSection(key, subSection);
+        return key.toString();
     }
 
     protected String toKey(List<String> subsections) {
-        List<String> allSections = Lists.asList(domain, subsections);
-        return allSections.stream()
-                .filter(s -> s != null && !s.trim().isEmpty())
-                .map(CharMatchers.dot()::trimFrom).collect(Collectors.joining("."));
+        StringBuilder key = new StringBuilder();
+        appendSection(key, domain);
+        for (String subsection : subsections) {
+            appendSection(key, subsection);
+        }
+        return key.toString();
+    }
+
+    /**
+     * Appends a component to a key under construction. Blank components are skipped,
+     * and leading and trailing dots are trimmed from other components.
+     */
+    private static void appendSection(StringBuilder key, @Nullable String section) {
+        if (section == null || isBlank(section)) {
+            return;
+        }
+        int start = 0, end = section.length();
+        while (start < end && section.charAt(start) == '.') {
+            start++;
+        }
+        while (end > start && section.charAt(end - 1) == '.') {
+            end--;
+        }
+        if (key.length() > 0) {
+            key.append('.');
+        }
+        key.append(section, start, end);
+    }
+
+    private static boolean isBlank(String section) {
+        for (int i = 0; i < section.length(); i++) {
+            if (section.charAt(i) > ' ') {
+                return false;
+            }
+        }
+        return true;
     }
 
     @Override
     public String get(Stream<String> identifierAliases) {
+        if (metrics != null) {
+            return get(identifierAliases.toArray(String[]::new));
+        }
         return get(identifierAliases, layers);
     }
 
     String get(Stream<String> identifierAliases, Iterable<SettingLayer> layers) {
-        List<String> identifierKeyList = identifierAliases
+        String[] keys = identifierAliases
                 .map(this::toKey)
-                .collect(Collectors.toList());
+                .toArray(String[]::new);
         for (SettingLayer layer : layers) {
-            String value = identifierKeyList.stream()
-                    .map(layer).filter(Objects::nonNull)
-                    .findFirst()
-                    .orElse(null);
+            String value = apply(layer, keys);
+            if (value != null) {
+                return value;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Gets the value of a setting. The key is built without any intermediate collections
+     * and each layer is consulted in a plain loop.
+     * @param identifier the identifier
+     * @return the value of the setting, or null if not defined
+     */
+    @Override
+    public String get(String identifier) {
+        String key = toKey(identifier);
+        if (metrics != null) {
+            return getMetered(identifier, new String[]{key});
+        }
+        for (SettingLayer layer : layerArray) {
+            String value = layer.apply(key);
+            if (value != null) {
+                return value;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Gets the value of a setting. The keys are built without any intermediate collections
+     * and each layer is consulted in a plain loop.
+     * @param identifierAliases one or more identifiers under which the setting is defined
+     * @return the value of the setting, or null if not defined
+     */
+    @Override
+    public String get(String[] identifierAliases) {
+        String[] keys = new String[identifierAliases.length];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = toKey(identifierAliases[i]);
+        }
+        if (metrics != null && keys.length > 0) {
+            return getMetered(identifierAliases[0], keys);
+        }
+        for (SettingLayer layer : layerArray) {
+            String value = apply(layer, keys);
+            if (value != null) {
+                return value;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Gets the value of a setting asynchronously. Layers are consulted in order of
+     * precedence. Synchronous layers are consulted on the calling thread, or on the
+     * thread that completes the request to the preceding asynchronous layer, and
+     * requests to an {@link AsyncSettingLayer} are composed without blocking.
+     * No further layers are consulted once a layer provides a value.
+     * @param identifierAliases one or more identifiers under which the setting is defined
+     * @return a future that completes with the value of the setting, or with null if not defined
+     */
+    @Override
+    public CompletableFuture<String> getAsync(String[] identifierAliases) {
+        String[] keys = new String[identifierAliases.length];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = toKey(identifierAliases[i]);
+        }
+        return resolveAsync(keys, 0);
+    }
+
+    private CompletableFuture<String> resolveAsync(String[] keys, int position) {
+        int end = layerArray.length * keys.length;
+        try {
+            for (; position < end; position++) {
+                SettingLayer layer = layerArray[position / keys.length];
+                String key = keys[position % keys.length];
+                if (layer instanceof AsyncSettingLayer) {
+                    int next = position + 1;
+                    return ((AsyncSettingLayer) layer).applyAsync(key)
+                            .thenCompose(value -> value != null ? CompletableFuture.completedFuture(value) : resolveAsync(keys, next));
+                }
+                String value = layer.apply(key);
+                if (value != null) {
+                    return CompletableFuture.completedFuture(value);
+                }
+            }
+        } catch (RuntimeException e) {
+            CompletableFuture<String> failed = new CompletableFuture<>();
+            failed.completeExceptionally(e);
+            return failed;
+        }
+        return CompletableFuture.completedFuture(null);
+    }
+
+    /**
+     * Gets the values of multiple settings. Each layer is asked once, with
+     * {@link SettingLayer#applyAll(Collection)}, for the keys that the layers
+     * above it did not define. If metrics are enabled, each setting is
+     * instead looked up individually so that it is recorded.
+     * @param identifiers the identifiers
+     * @return a new map of identifiers to values
+     */
+    @Override
+    public Map<String, String> getAll(Collection<String> identifiers) {
+        if (metrics != null) {
+            return SettingSet.super.getAll(identifiers);
+        }
+        String[] keys = new String[identifiers.size()];
+        Set<String> remaining = new LinkedHashSet<>();
+        int n = 0;
+        for (String identifier : identifiers) {
+            keys[n] = toKey(identifier);
+            remaining.add(keys[n]);
+            n++;
+        }
+        Map<String, String> valuesByKey = new HashMap<>();
+        for (SettingLayer layer : layerArray) {
+            if (remaining.isEmpty()) {
+                break;
+            }
+            Map<String, String> found = layer.applyAll(Collections.unmodifiableSet(remaining));
+            found.forEach((key, value) -> {
+                if (value != null && remaining.remove(key)) {
+                    valuesByKey.put(key, value);
+                }
+            });
+        }
+        Map<String, String> values = new LinkedHashMap<>();
+        n = 0;
+        for (String identifier : identifiers) {
+            String value = valuesByKey.get(keys[n++]);
+            if (value != null) {
+                values.put(identifier, value);
+            }
+        }
+        return values;
+    }
+
+    private String getMetered(String identifier, String[] keys) {
+        LookupMetrics.Stats identifierStats = metrics.identifierStats(identifier);
+        long start = System.nanoTime();
+        String value = null;
+        for (int i = 0; i < layerArray.length && value == null; i++) {
+            long layerStart = System.nanoTime();
+            value = apply(layerArray[i], keys);
+            layerStats[i].record(value != null, System.nanoTime() - layerStart);
+        }
+        identifierStats.record(value != null, System.nanoTime() - start);
+        return value;
+    }
+
+    @Override
+    public <T, U extends T> T getTyped(String identifier, Function<? super String, U> parser, @Nullable U valueIfUndefined) {
+        return parse(parsedValueCache, get(identifier), parser, valueIfUndefined);
+    }
+
+    @Override
+    public <T, U extends T> T getTyped(String[] identifierAliases, Function<? super String, U> parser, @Nullable U valueIfUndefined) {
+        return parse(parsedValueCache, get(identifierAliases), parser, valueIfUndefined);
+    }
+
+    @Override
+    public <T, U extends T> T getTyped(Stream<String> identifierAliases, Function<? super String, U> parser, @Nullable U valueIfUndefined) {
+        return parse(parsedValueCache, get(identifierAliases), parser, valueIfUndefined);
+    }
+
+    private static <T, U extends T> T parse(@Nullable ParsedValueCache cache, @Nullable String value, Function<? super String, U> parser, @Nullable U valueIfUndefined) {
+        if (cache == null) {
+            return Strings.parseNonEmpty(value, parser, valueIfUndefined);
+        }
+        value = Strings.emptyToNull(value);
+        if (value == null) {
+            return valueIfUndefined;
+        }
+        return Strings.orElse(cache.parse(value, parser), valueIfUndefined);
+    }
+
+    @Nullable
+    private static String apply(SettingLayer layer, String[] keys) {
+        for (String key : keys) {
+            String value = layer.apply(key);
             if (value != null) {
                 return value;
             }
@@ -80,6 +374,319 @@ public class LayeredSettingSet implements SettingSet {
         return null;
     }
 
+    /**
+     * Compiles a lookup of a setting. The domain-qualified key of each alias is computed
+     * once and bound to each layer, so invocations of the returned lookup do not
+     * transform any keys.
+     * @param identifierAliases one or more identifiers under which the setting is defined
+     * @return a lookup handle
+     */
+    @Override
+    public CompiledLookup compile(String... identifierAliases) {
+        List<Supplier<String>> sources = new ArrayList<>(layers.size() * identifierAliases.length);
+        for (SettingLayer layer : layers) {
+            for (String identifier : identifierAliases) {
+                sources.add(layer.bind(toKey(identifier)));
+            }
+        }
+        if (metrics != null && identifierAliases.length > 0) {
+            return new MeteredLookup(sources, parsedValueCache, identifierAliases.length, metrics.identifierStats(identifierAliases[0]), layerStats);
+        }
+        return new LayeredLookup(sources, parsedValueCache);
+    }
+
+    /**
+     * Binds a setting descriptor to this setting set. The raw and parsed values are
+     * cached in the returned handle, and the handle is invalidated when a layer reports
+     * a change to the key of any of the setting's aliases. Changes in layers that do not
+     * support {@link SettingLayer#subscribe(Consumer) subscription} are not observed;
+     * for example, changes to system properties are observed only after
+     * {@link SettingLayer#refreshSystemProperties()} is invoked. The layers hold the
+     * handle weakly, so a handle that is no longer used may be garbage-collected.
+     * @param setting the setting descriptor
+     * @param <T> type of the parsed value
+     * @return a handle that provides the parsed value
+     */
+    @Override
+    public <T> BoundSetting<T> bind(Setting<T> setting) {
+        String[] aliases = setting.identifierAliases();
+        BoundSetting<T> bound = new BoundSetting<>(setting, compile(aliases));
+        Set<String> keys = new HashSet<>();
+        for (String identifier : aliases) {
+            keys.add(toKey(identifier));
+        }
+        Invalidator invalidator = new Invalidator(bound, keys);
+        for (SettingLayer layer : layerArray) {
+            invalidator.subscriptions.add(layer.subscribe(invalidator));
+        }
+        return bound;
+    }
+
+    /**
+     * Listener that invalidates a bound setting when one of its keys changes.
+     * Once the bound setting has been garbage-collected, the next notification
+     * cancels the subscriptions.
+     */
+    private static final class Invalidator implements Consumer<Set<String>> {
+
+        private final WeakReference<BoundSetting<?>> bound;
+        private final Set<String> keys;
+        private final List<Subscription> subscriptions = new CopyOnWriteArrayList<>();
+
+        public Invalidator(BoundSetting<?> bound, Set<String> keys) {
+            this.bound = new WeakReference<>(bound);
+            this.keys = keys;
+        }
+
+        @Override
+        public void accept(Set<String> changedKeys) {
+            BoundSetting<?> bound = this.bound.get();
+            if (bound == null) {
+                for (Subscription subscription : subscriptions) {
+                    subscription.close();
+                }
+                return;
+            }
+            for (String key : keys) {
+                if (changedKeys.contains(key)) {
+                    bound.invalidate();
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Gets the identifiers of the settings defined in any layer that start with a prefix.
+     * Layers that do not support {@link SettingLayer#keys(String) enumeration} are skipped.
+     * Each invocation enumerates the layers; for repeated queries, use a {@link #snapshot() snapshot},
+     * whose identifiers are indexed by prefix.
+     * @param identifierPrefix the identifier prefix
+     * @return a new sorted set of identifiers
+     */
+    @Override
+    public Set<String> keys(String identifierPrefix) {
+        String domainKey = toKey(Collections.emptyList());
+        String domainPrefix = domainKey.isEmpty() ? "" : domainKey + ".";
+        // layers are queried with whole key components, because a layer may not be able
+        // to match part of a component, as with environment variables and underscores
+        String queryPrefix = domainPrefix + identifierPrefix.substring(0, identifierPrefix.lastIndexOf('.') + 1);
+        Set<String> identifiers = new TreeSet<>();
+        for (SettingLayer layer : layerArray) {
+            Set<String> keys = layer.keys(queryPrefix);
+            if (keys != null) {
+                for (String key : keys) {
+                    if (key.length() > domainPrefix.length() && key.startsWith(identifierPrefix, domainPrefix.length()) && key.startsWith(domainPrefix)) {
+                        identifiers.add(key.substring(domainPrefix.length()));
+                    }
+                }
+            }
+        }
+        return identifiers;
+    }
+
+    /**
+     * Creates an immutable snapshot of this setting set. Every setting under the domain
+     * is captured from every layer, and the value from the layer of highest precedence
+     * is retained. Lookups in the snapshot do not consult the layers.
+     * Environment variables are captured under their canonical keys, meaning
+     * that variable {@code FOO_BAR_BAZ} is visible under identifier {@code bar.baz}
+     * of domain {@code foo}.
+     * @return a new setting set instance
+     * @throws UnsupportedOperationException if any layer does not support {@link SettingLayer#capture(String) capture}
+     */
+    public SettingSet snapshot() {
+        String domainKey = toKey(Collections.emptyList());
+        String prefix = domainKey.isEmpty() ? "" : domainKey + ".";
+        Map<String, String> resolved = new LinkedHashMap<>();
+        for (SettingLayer layer : layers) {
+            Map<String, String> captured = layer.capture(prefix);
+            if (captured == null) {
+                throw new UnsupportedOperationException("layer does not support capture: " + layer);
+            }
+            if (!domainKey.isEmpty()) {
+                String domainValue = layer.apply(domainKey);
+                if (domainValue != null) {
+                    resolved.putIfAbsent("", domainValue);
+                }
+            }
+            captured.forEach((key, value) -> {
+                String identifier = key.substring(prefix.length());
+                if (!identifier.isEmpty()) {
+                    resolved.putIfAbsent(identifier, value);
+                }
+            });
+        }
+        return new SnapshotSettingSet(new StringTable(resolved), new RadixTrie(resolved.keySet()));
+    }
+
+    /**
+     * Watches a setting for changes. Each layer is subscribed to, and when a layer
+     * reports a change to the key of the setting, the value is resolved again after
+     * a short delay. Notifications that arrive in the meantime are coalesced, and
+     * the listener is invoked on a single shared dispatcher thread only if the
+     * resolved value differs from the last value published.
+     * Layers that do not support {@link SettingLayer#subscribe(Consumer) subscription}
+     * do not trigger notifications.
+     * @param identifier the identifier
+     * @param listener listener to be invoked with the new value, which may be null
+     * @return a watch handle
+     */
+    @Override
+    public SettingWatch watch(String identifier, Consumer<? super String> listener) {
+        requireNonNull(listener, "listener");
+        LayeredWatch watch = new LayeredWatch(toKey(identifier), compile(identifier), listener);
+        for (SettingLayer layer : layerArray) {
+            watch.subscriptions.add(layer.subscribe(watch::onChange));
+        }
+        // the baseline is read after subscribing so that no change goes unreported
+        watch.start();
+        return watch;
+    }
+
+    private static final class LayeredWatch implements SettingWatch {
+
+        private final String key;
+        private final CompiledLookup lookup;
+        private final Consumer<? super String> listener;
+        private final List<Subscription> subscriptions = new ArrayList<>();
+        private final AtomicBoolean pending = new AtomicBoolean();
+        @Nullable
+        private volatile Generation current;
+        private volatile boolean closed;
+
+        public LayeredWatch(String key, CompiledLookup lookup, Consumer<? super String> listener) {
+            this.key = key;
+            this.lookup = lookup;
+            this.listener = listener;
+        }
+
+        /**
+         * Reads the baseline value. Invoked after all layers are subscribed.
+         */
+        public synchronized void start() {
+            current = new Generation(0, lookup.get());
+        }
+
+        public void onChange(Set<String> changedKeys) {
+            if (!closed && changedKeys.contains(key) && pending.compareAndSet(false, true)) {
+                ChangeDispatcher.schedule(this::dispatch, WATCH_DEBOUNCE_NANOS);
+            }
+        }
+
+        private void dispatch() {
+            pending.set(false);
+            if (closed) {
+                return;
+            }
+            String value;
+            synchronized (this) {
+                Generation previous = current;
+                if (previous == null) {
+                    // not started; the baseline read by start() will include the change
+                    return;
+                }
+                value = lookup.get();
+                if (Objects.equals(value, previous.value)) {
+                    return;
+                }
+                current = new Generation(previous.number + 1, value);
+            }
+            listener.accept(value);
+        }
+
+        @Override
+        public String get() {
+            return current.value;
+        }
+
+        @Override
+        public long generation() {
+            return current.number;
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+            for (Subscription subscription : subscriptions) {
+                subscription.close();
+            }
+        }
+
+        private static final class Generation {
+
+            public final long number;
+            @Nullable
+            public final String value;
+
+            public Generation(long number, @Nullable String value) {
+                this.number = number;
+                this.value = value;
+            }
+        }
+    }
+
+    private static class LayeredLookup implements CompiledLookup {
+
+        protected final Supplier<?>[] sources;
+        @Nullable
+        private final ParsedValueCache parsedValueCache;
+
+        public LayeredLookup(List<Supplier<String>> sources, @Nullable ParsedValueCache parsedValueCache) {
+            this.sources = sources.toArray(new Supplier<?>[0]);
+            this.parsedValueCache = parsedValueCache;
+        }
+
+        @Override
+        public String get() {
+            for (Supplier<?> source : sources) {
+                String value = (String) source.get();
+                if (value != null) {
+                    return value;
+                }
+            }
+            return null;
+        }
+
+        @Override
+        public <T, U extends T> T getTyped(Function<? super String, U> parser, @Nullable U valueIfUndefined) {
+            return parse(parsedValueCache, get(), parser, valueIfUndefined);
+        }
+    }
+
+    /**
+     * Lookup that records metrics. Sources are ordered by layer and then by alias.
+     */
+    private static final class MeteredLookup extends LayeredLookup {
+
+        private final int aliasCount;
+        private final LookupMetrics.Stats identifierStats;
+        private final LookupMetrics.Stats[] layerStats;
+
+        public MeteredLookup(List<Supplier<String>> sources, @Nullable ParsedValueCache parsedValueCache, int aliasCount, LookupMetrics.Stats identifierStats, LookupMetrics.Stats[] layerStats) {
+            super(sources, parsedValueCache);
+            this.aliasCount = aliasCount;
+            this.identifierStats = identifierStats;
+            this.layerStats = layerStats;
+        }
+
+        @Override
+        public String get() {
+            long start = System.nanoTime();
+            String value = null;
+            for (int layer = 0; layer < layerStats.length && value == null; layer++) {
+                long layerStart = System.nanoTime();
+                int end = (layer + 1) * aliasCount;
+                for (int i = layer * aliasCount; i < end && value == null; i++) {
+                    value = (String) sources[i].get();
+                }
+                layerStats[layer].record(value != null, System.nanoTime() - layerStart);
+            }
+            identifierStats.record(value != null, System.nanoTime() - start);
+            return value;
+        }
+    }
+
     /**
      * Transforms a path of components of a key into key in this setting domain.
      * @param subSection the first component
@@ -0,0 +1,168 @@
+package io.github.mike10004.nitsick;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Counters and latency histograms of setting lookups. Counts are recorded per
+ * identifier and per layer with {@link LongAdder} instances, so recording does
+ * not take any locks. An instance may be shared among setting sets and may be
+ * published through the platform MBean server with {@link #register(String)}.
+ *
+ * <p>Layers are named by their {@code toString()} representations, so layers
+ * that should be reported separately should have distinct representations.
+ * @see LayeredSettingSet#withMetrics(LookupMetrics)
+ */
+public final class LookupMetrics implements LookupMetricsMXBean {
+
+    static final int HISTOGRAM_BUCKETS = 40;
+
+    private final ConcurrentMap<String, Stats> identifiers = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Stats> layers = new ConcurrentHashMap<>();
+
+    /**
+     * Constructs an instance.
+     */
+    public LookupMetrics() {
+    }
+
+    Stats identifierStats(String identifier) {
+        return stats(identifiers, identifier);
+    }
+
+    Stats layerStats(SettingLayer layer) {
+        return stats(layers, String.valueOf(layer));
+    }
+
+    private static Stats stats(ConcurrentMap<String, Stats> statsMap, String name) {
+        Stats stats = statsMap.get(name);
+        if (stats == null) {
+            stats = statsMap.computeIfAbsent(name, k -> new Stats());
+        }
+        return stats;
+    }
+
+    /**
+     * Registers this instance with the platform MBean server.
+     * @param name value of the {@code name} property of the object name
+     * @return the object name under which this instance is registered
+     * @throws JMException if registration fails
+     */
+    public ObjectName register(String name) throws JMException {
+        requireNonNull(name, "name");
+        ObjectName objectName = new ObjectName("io.github.mike10004.nitsick:type=LookupMetrics,name=" + ObjectName.quote(name));
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        server.registerMBean(this, objectName);
+        return objectName;
+    }
+
+    @Override
+    public Map<String, Long> getIdentifierHitCounts() {
+        return collect(identifiers, stats -> stats.hits.sum());
+    }
+
+    @Override
+    public Map<String, Long> getIdentifierMissCounts() {
+        return collect(identifiers, stats -> stats.misses.sum());
+    }
+
+    @Override
+    public Map<String, long[]> getIdentifierLatencyHistograms() {
+        return collect(identifiers, Stats::histogram);
+    }
+
+    @Override
+    public Map<String, Long> getLayerHitCounts() {
+        return collect(layers, stats -> stats.hits.sum());
+    }
+
+    @Override
+    public Map<String, Long> getLayerMissCounts() {
+        return collect(layers, stats -> stats.misses.sum());
+    }
+
+    @Override
+    public Map<String, long[]> getLayerLatencyHistograms() {
+        return collect(layers, Stats::histogram);
+    }
+
+    @Override
+    public void reset() {
+        identifiers.values().forEach(Stats::reset);
+        layers.values().forEach(Stats::reset);
+    }
+
+    private static <T> Map<String, T> collect(Map<String, Stats> statsMap, Function<Stats, T> metric) {
+        Map<String, T> collected = new TreeMap<>();
+        statsMap.forEach((name, stats) -> collected.put(name, metric.apply(stats)));
+        return collected;
+    }
+
+    /**
+     * Gets the index of the histogram bucket of a duration.
+     * @param nanos the duration in nanoseconds
+     * @return the bucket index
+     */
+    static int bucket(long nanos) {
+        if (nanos <= 0) {
+            return 0;
+        }
+        return Math.min(64 - Long.numberOfLeadingZeros(nanos), HISTOGRAM_BUCKETS - 1);
+    }
+
+    /**
+     * Counters of a single identifier or layer.
+     */
+    static final class Stats {
+
+        private final LongAdder hits = new LongAdder();
+        private final LongAdder misses = new LongAdder();
+        private final LongAdder[] latencies;
+
+        Stats() {
+            latencies = new LongAdder[HISTOGRAM_BUCKETS];
+            for (int i = 0; i < latencies.length; i++) {
+                latencies[i] = new LongAdder();
+            }
+        }
+
+        public void record(boolean hit, long elapsedNanos) {
+            (hit ? hits : misses).increment();
+            latencies[bucket(elapsedNanos)].increment();
+        }
+
+        public long hitCount() {
+            return hits.sum();
+        }
+
+        public long missCount() {
+            return misses.sum();
+        }
+
+        public long[] histogram() {
+            long[] counts = new long[latencies.length];
+            for (int i = 0; i < counts.length; i++) {
+                counts[i] = latencies[i].sum();
+            }
+            return counts;
+        }
+
+        void reset() {
+            hits.reset();
+            misses.reset();
+            for (LongAdder latency : latencies) {
+                latency.reset();
+            }
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package io.github.mike10004.nitsick;
+
+import java.util.Map;
+
+/**
+ * Management interface of {@link LookupMetrics}. Latency histograms are arrays
+ * in which element {@code i} is the number of lookups that took at least
+ * 2<sup>i-1</sup> and less than 2<sup>i</sup> nanoseconds; element zero counts
+ * lookups that took less than one nanosecond, and the last element counts all
+ * lookups longer than the range of the preceding elements.
+ */
+public interface LookupMetricsMXBean {
+
+    /**
+     * Gets the number of lookups of each identifier that resolved to a value.
+     * @return map of identifier to count
+     */
+    Map<String, Long> getIdentifierHitCounts();
+
+    /**
+     * Gets the number of lookups of each identifier that resolved to no value.
+     * @return map of identifier to count
+     */
+    Map<String, Long> getIdentifierMissCounts();
+
+    /**
+     * Gets the latency histogram of lookups of each identifier.
+     * @return map of identifier to histogram
+     */
+    Map<String, long[]> getIdentifierLatencyHistograms();
+
+    /**
+     * Gets the number of times each layer provided a value.
+     * @return map of layer name to count
+     */
+    Map<String, Long> getLayerHitCounts();
+
+    /**
+     * Gets the number of times each layer was consulted and provided no value.
+     * @return map of layer name to count
+     */
+    Map<String, Long> getLayerMissCounts();
+
+    /**
+     * Gets the latency histogram of requests to each layer.
+     * @return map of layer name to histogram
+     */
+    Map<String, long[]> getLayerLatencyHistograms();
+
+    /**
+     * Resets all counts to zero.
+     */
+    void reset();
+
+}
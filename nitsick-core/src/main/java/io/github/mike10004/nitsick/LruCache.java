@@ -0,0 +1,69 @@
+package io.github.mike10004.nitsick;
+
+import javax.annotation.Nullable;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Size-bounded map that evicts the least recently used entry when full.
+ * All methods are synchronized on the instance.
+ * @param <K> key type
+ * @param <V> value type
+ */
+final class LruCache<K, V> {
+
+    private final LinkedHashMap<K, V> map;
+
+    /**
+     * Constructs an instance.
+     * @param maximumSize maximum number of entries
+     */
+    public LruCache(int maximumSize) {
+        if (maximumSize < 1) {
+            throw new IllegalArgumentException("maximum size must be positive: " + maximumSize);
+        }
+        this.map = new LinkedHashMap<K, V>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+                return size() > maximumSize;
+            }
+        };
+    }
+
+    @Nullable
+    public synchronized V get(K key) {
+        return map.get(key);
+    }
+
+    public synchronized void put(K key, V value) {
+        map.put(key, value);
+    }
+
+    /**
+     * Maps a key to a value if the key is currently mapped to an expected value.
+     * Values are compared by identity.
+     * @param key the key
+     * @param expected the expected value, or null if the key is expected to be absent
+     * @param value the new value
+     * @return true if the value was replaced
+     */
+    public synchronized boolean replace(K key, @Nullable V expected, V value) {
+        if (map.get(key) != expected) {
+            return false;
+        }
+        map.put(key, value);
+        return true;
+    }
+
+    public synchronized void remove(K key) {
+        map.remove(key);
+    }
+
+    public synchronized void clear() {
+        map.clear();
+    }
+
+    public synchronized int size() {
+        return map.size();
+    }
+}
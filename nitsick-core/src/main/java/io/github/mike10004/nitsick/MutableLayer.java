@@ -0,0 +1,94 @@
+package io.github.mike10004.nitsick;
+
+import javax.annotation.Nullable;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Consumer;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Layer whose settings are held in memory and may be changed at any time.
+ * Subscribers are notified of each change on the thread that makes it.
+ */
+public class MutableLayer implements SettingLayer {
+
+    private final ConcurrentMap<String, String> values;
+    private final ChangeNotifier notifier = new ChangeNotifier();
+
+    /**
+     * Constructs an instance with no settings.
+     */
+    public MutableLayer() {
+        values = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Constructs an instance with initial settings.
+     * @param settings map of keys to values
+     */
+    public MutableLayer(Map<String, String> settings) {
+        values = new ConcurrentHashMap<>(settings);
+    }
+
+    @Override
+    public String apply(String key) {
+        return values.get(key);
+    }
+
+    /**
+     * Sets the value of a key.
+     * @param key the key
+     * @param value the value, or null to remove the setting
+     */
+    public void set(String key, @Nullable String value) {
+        requireNonNull(key, "key");
+        String previous = value == null ? values.remove(key) : values.put(key, value);
+        if (!Objects.equals(previous, value)) {
+            notifier.publish(Collections.singleton(key));
+        }
+    }
+
+    /**
+     * Sets the values of multiple keys. Subscribers are notified once of all the keys that changed.
+     * @param settings map of keys to values; a null value removes a setting
+     */
+    public void setAll(Map<String, String> settings) {
+        Set<String> changed = new HashSet<>();
+        settings.forEach((key, value) -> {
+            requireNonNull(key, "key");
+            String previous = value == null ? values.remove(key) : values.put(key, value);
+            if (!Objects.equals(previous, value)) {
+                changed.add(key);
+            }
+        });
+        notifier.publish(changed);
+    }
+
+    @Override
+    public Map<String, String> capture(String keyPrefix) {
+        Map<String, String> captured = new LinkedHashMap<>();
+        values.forEach((key, value) -> {
+            if (key.startsWith(keyPrefix)) {
+                captured.put(key, value);
+            }
+        });
+        return captured;
+    }
+
+    @Override
+    public Subscription subscribe(Consumer<? super Set<String>> listener) {
+        return notifier.subscribe(listener);
+    }
+
+    @Override
+    public String toString() {
+        return "MutableLayer{size=" + values.size() + "}";
+    }
+}
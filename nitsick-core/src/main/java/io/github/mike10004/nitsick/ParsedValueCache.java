@@ -0,0 +1,170 @@
+package io.github.mike10004.nitsick;
+
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Cache of values parsed from setting values. Entries are keyed by the
+ * raw string value and the identity of the parser, so each distinct raw value
+ * is parsed once per parser and the parsed value is shared among callers.
+ * Parsed values should therefore be immutable, as are {@link java.time.Duration},
+ * {@link Integer}, and {@link Boolean} instances.
+ *
+ * <p>Parsers are compared by identity. A method reference evaluated at a given
+ * site in the source code yields the same instance each time if it captures
+ * no variables, but method references at different sites may not be the same
+ * instance, so callers that want to share entries should share a parser instance.
+ *
+ * <p>The cache is bounded in size. Lookups of cached values do not lock, so the cache
+ * may be shared by many threads. When the cache is full, an entry that has not been
+ * used since it was last considered for eviction is evicted, which approximates
+ * evicting the least recently used entry.
+ * Parsers that throw or return null are invoked on every request.
+ * @see LayeredSettingSet#withParsedValueCache(ParsedValueCache)
+ */
+public final class ParsedValueCache {
+
+    private final int maximumSize;
+    private final ConcurrentMap<Key, Node> cache = new ConcurrentHashMap<>();
+    private final Object evictionLock = new Object();
+    private final LongAdder hitCount = new LongAdder();
+    private final LongAdder missCount = new LongAdder();
+
+    /**
+     * Constructs an instance.
+     * @param maximumSize maximum number of parsed values to cache
+     */
+    public ParsedValueCache(int maximumSize) {
+        if (maximumSize < 1) {
+            throw new IllegalArgumentException("maximum size must be positive: " + maximumSize);
+        }
+        this.maximumSize = maximumSize;
+    }
+
+    /**
+     * Parses a value, or returns the cached result of parsing the value with the same parser.
+     * @param value the raw value
+     * @param parser the parser
+     * @param <T> type of the parsed value
+     * @return the parsed value
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T parse(String value, Function<? super String, T> parser) {
+        Key key = new Key(value, parser);
+        Node node = cache.get(key);
+        if (node != null) {
+            hitCount.increment();
+            if (!node.referenced) {
+                // write only when the flag changes, so hits on a hot entry do not contend
+                node.referenced = true;
+            }
+            return (T) node.value;
+        }
+        missCount.increment();
+        T fresh = parser.apply(value);
+        if (fresh != null) {
+            cache.put(key, new Node(fresh));
+            if (cache.size() > maximumSize) {
+                evict();
+            }
+        }
+        return fresh;
+    }
+
+    boolean isCached(String value, Function<? super String, ?> parser) {
+        return cache.containsKey(new Key(value, parser));
+    }
+
+    /**
+     * Evicts entries until the cache is within its maximum size. Entries are scanned
+     * in iteration order; an entry that was used since it was last scanned has its
+     * use flag cleared and is kept, and the first entry that was not is evicted.
+     * At most two passes are needed, because the first pass clears every flag.
+     */
+    private void evict() {
+        synchronized (evictionLock) {
+            while (cache.size() > maximumSize) {
+                Iterator<Node> nodes = cache.values().iterator();
+                while (nodes.hasNext()) {
+                    Node node = nodes.next();
+                    if (node.referenced) {
+                        node.referenced = false;
+                    } else {
+                        nodes.remove();
+                        break;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Discards all cached values.
+     */
+    public void invalidateAll() {
+        cache.clear();
+    }
+
+    /**
+     * Gets the number of requests that were answered from the cache.
+     * @return the hit count
+     */
+    public long hitCount() {
+        return hitCount.sum();
+    }
+
+    /**
+     * Gets the number of requests that invoked a parser.
+     * @return the miss count
+     */
+    public long missCount() {
+        return missCount.sum();
+    }
+
+    /**
+     * Gets the number of parsed values currently cached.
+     * @return the number of cached values
+     */
+    public int size() {
+        return cache.size();
+    }
+
+    private static final class Node {
+
+        public final Object value;
+        public volatile boolean referenced = true;
+
+        public Node(Object value) {
+            this.value = value;
+        }
+    }
+
+    private static final class Key {
+
+        private final String value;
+        private final Function<?, ?> parser;
+
+        public Key(String value, Function<?, ?> parser) {
+            this.value = requireNonNull(value);
+            this.parser = requireNonNull(parser);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key)) return false;
+            Key other = (Key) o;
+            return parser == other.parser && value.equals(other.value);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * System.identityHashCode(parser) + value.hashCode();
+        }
+    }
+}
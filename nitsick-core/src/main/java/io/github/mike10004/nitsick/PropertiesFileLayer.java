@@ -0,0 +1,376 @@
+package io.github.mike10004.nitsick;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Layer that provides access to the settings defined in a {@code .properties} file.
+ * The file is memory-mapped at construction. The first request for a value scans
+ * the file once to build a compact index of the offsets of each key and value,
+ * and values are decoded from the mapped file only when requested.
+ *
+ * <p>The file is interpreted as by {@link java.util.Properties#load(java.io.InputStream)},
+ * meaning it is read as ISO 8859-1 text in which other characters are represented
+ * by Unicode escapes. If a key is defined more than once, the last definition wins.
+ * Changes to the file after construction produce undefined results.
+ */
+public class PropertiesFileLayer implements SettingLayer {
+
+    private static final int FIELDS_PER_ENTRY = 4;
+    private static final int KEY_START = 0, KEY_END = 1, VALUE_START = 2, LINE_END = 3;
+
+    private final Path file;
+    private final MappedByteBuffer buffer;
+    private final int limit;
+    private volatile Index index;
+
+    /**
+     * Constructs an instance.
+     * @param file the properties file
+     * @throws IOException if the file cannot be mapped
+     */
+    public PropertiesFileLayer(Path file) throws IOException {
+        this.file = requireNonNull(file, "file");
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("file too large to map: " + file);
+            }
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            limit = (int) size;
+        }
+    }
+
+    @Override
+    public String apply(String key) {
+        Index index = index();
+        int entry = index.find(key);
+        if (entry < 0) {
+            return null;
+        }
+        return decode(index.get(entry, VALUE_START), index.get(entry, LINE_END));
+    }
+
+    /**
+     * Captures the settings whose keys start with a prefix. Keys and values
+     * are decoded for every entry in the file.
+     * @param keyPrefix the key prefix
+     * @return a new map
+     */
+    @Override
+    public Map<String, String> capture(String keyPrefix) {
+        Index index = index();
+        Map<String, String> captured = new LinkedHashMap<>();
+        for (int entry = 0; entry < index.size; entry++) {
+            String key = decode(index.get(entry, KEY_START), index.get(entry, KEY_END));
+            if (key.startsWith(keyPrefix)) {
+                captured.put(key, decode(index.get(entry, VALUE_START), index.get(entry, LINE_END)));
+            }
+        }
+        return captured;
+    }
+
+    private Index index() {
+        Index index = this.index;
+        if (index == null) {
+            synchronized (this) {
+                index = this.index;
+                if (index == null) {
+                    index = buildIndex();
+                    this.index = index;
+                }
+            }
+        }
+        return index;
+    }
+
+    private int byteAt(int pos) {
+        return buffer.get(pos) & 0xFF;
+    }
+
+    private static boolean isWhitespace(int ch) {
+        return ch == ' ' || ch == '\t' || ch == '\f';
+    }
+
+    private static boolean isLineTerminator(int ch) {
+        return ch == '\n' || ch == '\r';
+    }
+
+    private Index buildIndex() {
+        int[] offsets = new int[FIELDS_PER_ENTRY * 64];
+        int[] hashes = new int[64];
+        int size = 0;
+        int pos = 0;
+        while (pos < limit) {
+            while (pos < limit && isWhitespace(byteAt(pos))) {
+                pos++;
+            }
+            if (pos == limit) {
+                break;
+            }
+            int first = byteAt(pos);
+            if (isLineTerminator(first)) {
+                pos++;
+                continue;
+            }
+            if (first == '#' || first == '!') {
+                while (pos < limit && !isLineTerminator(byteAt(pos))) {
+                    pos++;
+                }
+                continue;
+            }
+            int keyStart = pos;
+            Cursor cursor = new Cursor(pos, limit);
+            int hash = 0;
+            int keyEnd;
+            boolean hasSeparator = false;
+            while (true) {
+                int before = cursor.pos;
+                int ch = cursor.next();
+                if (ch < 0) {
+                    keyEnd = before;
+                    break;
+                }
+                if (!cursor.escaped && (ch == '=' || ch == ':')) {
+                    keyEnd = before;
+                    hasSeparator = true;
+                    break;
+                }
+                if (!cursor.escaped && isWhitespace(ch)) {
+                    keyEnd = before;
+                    break;
+                }
+                hash = 31 * hash + ch;
+            }
+            int valueStart;
+            while (true) {
+                valueStart = cursor.pos;
+                int ch = cursor.next();
+                if (ch < 0 || cursor.escaped) {
+                    break;
+                }
+                if (!isWhitespace(ch)) {
+                    if (!hasSeparator && (ch == '=' || ch == ':')) {
+                        hasSeparator = true;
+                    } else {
+                        break;
+                    }
+                }
+            }
+            cursor.pos = valueStart;
+            while (cursor.next() >= 0) {
+                // advance to end of logical line
+            }
+            int lineEnd = cursor.pos;
+            if (size == hashes.length) {
+                hashes = Arrays.copyOf(hashes, size * 2);
+                offsets = Arrays.copyOf(offsets, size * 2 * FIELDS_PER_ENTRY);
+            }
+            int base = size * FIELDS_PER_ENTRY;
+            offsets[base + KEY_START] = keyStart;
+            offsets[base + KEY_END] = keyEnd;
+            offsets[base + VALUE_START] = valueStart;
+            offsets[base + LINE_END] = lineEnd;
+            hashes[size] = hash;
+            size++;
+            pos = lineEnd;
+        }
+        return new Index(offsets, hashes, size);
+    }
+
+    private String decode(int start, int end) {
+        StringBuilder sb = new StringBuilder(end - start);
+        Cursor cursor = new Cursor(start, end);
+        int ch;
+        while ((ch = cursor.next()) >= 0) {
+            sb.append((char) ch);
+        }
+        return sb.toString();
+    }
+
+    private boolean keyEquals(int start, int end, String key) {
+        Cursor cursor = new Cursor(start, end);
+        int length = key.length();
+        for (int i = 0; i < length; i++) {
+            if (cursor.next() != key.charAt(i)) {
+                return false;
+            }
+        }
+        return cursor.next() < 0;
+    }
+
+    @Override
+    public String toString() {
+        return "PropertiesFileLayer{file=" + file + "}";
+    }
+
+    /**
+     * Reader of the logical characters of a region of the file. Escape sequences
+     * are decoded and line continuations are skipped. The cursor stops before
+     * an unescaped line terminator.
+     */
+    private final class Cursor {
+
+        public int pos;
+        private final int end;
+        public boolean escaped;
+
+        public Cursor(int pos, int end) {
+            this.pos = pos;
+            this.end = end;
+        }
+
+        /**
+         * Reads the next logical character.
+         * @return the character, or -1 at the end of the logical line or region
+         */
+        public int next() {
+            escaped = false;
+            while (true) {
+                if (pos >= end) {
+                    return -1;
+                }
+                int ch = byteAt(pos);
+                if (isLineTerminator(ch)) {
+                    return -1;
+                }
+                if (ch != '\\') {
+                    pos++;
+                    return ch;
+                }
+                if (pos + 1 >= end) {
+                    pos++;
+                    return -1;
+                }
+                int escapee = byteAt(pos + 1);
+                pos += 2;
+                if (isLineTerminator(escapee)) {
+                    if (escapee == '\r' && pos < end && byteAt(pos) == '\n') {
+                        pos++;
+                    }
+                    while (pos < end && isWhitespace(byteAt(pos))) {
+                        pos++;
+                    }
+                    continue;
+                }
+                escaped = true;
+                switch (escapee) {
+                    case 't':
+                        return '\t';
+                    case 'n':
+                        return '\n';
+                    case 'r':
+                        return '\r';
+                    case 'f':
+                        return '\f';
+                    case 'u':
+                        return readUnicodeEscape();
+                    default:
+                        return escapee;
+                }
+            }
+        }
+
+        private int readUnicodeEscape() {
+            if (pos + 4 > end) {
+                throw new IllegalArgumentException("Malformed \\uxxxx encoding.");
+            }
+            int value = 0;
+            for (int i = 0; i < 4; i++) {
+                int digit = Character.digit(byteAt(pos++), 16);
+                if (digit < 0) {
+                    throw new IllegalArgumentException("Malformed \\uxxxx encoding.");
+                }
+                value = (value << 4) | digit;
+            }
+            return value;
+        }
+    }
+
+    /**
+     * Offsets of the entries in the file, with an open-addressing table
+     * of entry numbers keyed by the hash of the decoded key.
+     */
+    private final class Index {
+
+        private final int[] offsets;
+        private final int[] hashes;
+        public final int size;
+        private final int[] slots;
+        private final int mask;
+
+        public Index(int[] offsets, int[] hashes, int size) {
+            this.offsets = offsets;
+            this.hashes = hashes;
+            this.size = size;
+            int capacity = Integer.highestOneBit(Math.max(2, size) * 2 - 1) << 1;
+            slots = new int[capacity];
+            mask = capacity - 1;
+            for (int entry = 0; entry < size; entry++) {
+                insert(entry);
+            }
+        }
+
+        public int get(int entry, int field) {
+            return offsets[entry * FIELDS_PER_ENTRY + field];
+        }
+
+        private int indexFor(int hash) {
+            return (hash ^ (hash >>> 16)) & mask;
+        }
+
+        private void insert(int entry) {
+            int hash = hashes[entry];
+            int index = indexFor(hash);
+            int occupant;
+            while ((occupant = slots[index]) != 0) {
+                int other = occupant - 1;
+                if (hashes[other] == hash && sameKey(other, entry)) {
+                    slots[index] = entry + 1;
+                    return;
+                }
+                index = (index + 1) & mask;
+            }
+            slots[index] = entry + 1;
+        }
+
+        private boolean sameKey(int entry1, int entry2) {
+            Cursor c1 = new Cursor(get(entry1, KEY_START), get(entry1, KEY_END));
+            Cursor c2 = new Cursor(get(entry2, KEY_START), get(entry2, KEY_END));
+            int ch;
+            do {
+                ch = c1.next();
+                if (ch != c2.next()) {
+                    return false;
+                }
+            } while (ch >= 0);
+            return true;
+        }
+
+        /**
+         * Finds the entry for a key.
+         * @return the entry number, or -1 if not found
+         */
+        public int find(String key) {
+            int hash = key.hashCode();
+            int index = indexFor(hash);
+            int occupant;
+            while ((occupant = slots[index]) != 0) {
+                int entry = occupant - 1;
+                if (hashes[entry] == hash && keyEquals(get(entry, KEY_START), get(entry, KEY_END), key)) {
+                    return entry;
+                }
+                index = (index + 1) & mask;
+            }
+            return -1;
+        }
+    }
+}
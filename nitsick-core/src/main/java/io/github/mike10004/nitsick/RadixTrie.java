@@ -0,0 +1,181 @@
+package io.github.mike10004.nitsick;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Radix tree of strings that supports enumeration of the strings with a given prefix.
+ * Each edge is labeled with a nonempty substring, and the edges leaving a node
+ * are sorted by their first character, so strings are enumerated in lexicographic
+ * order of their UTF-16 code units. Finding the strings with a prefix takes time
+ * proportional to the length of the prefix plus the total length of the results.
+ * This class is not thread-safe during construction; it is meant to be
+ * built once and then only queried.
+ */
+final class RadixTrie {
+
+    private final Node root = new Node();
+    private int size;
+
+    /**
+     * Constructs an instance containing the given strings.
+     * @param keys the strings
+     */
+    public RadixTrie(Iterable<String> keys) {
+        for (String key : keys) {
+            add(key);
+        }
+    }
+
+    /**
+     * Gets the number of distinct strings in this trie.
+     * @return the size
+     */
+    public int size() {
+        return size;
+    }
+
+    private void add(String key) {
+        Node node = root;
+        int pos = 0;
+        while (pos < key.length()) {
+            int i = node.find(key.charAt(pos));
+            if (i < 0) {
+                Node leaf = new Node();
+                leaf.terminal = true;
+                node.insert(-(i + 1), key.substring(pos), leaf);
+                size++;
+                return;
+            }
+            String label = node.labels[i];
+            int common = commonPrefixLength(label, key, pos);
+            if (common < label.length()) {
+                Node middle = new Node();
+                middle.insert(0, label.substring(common), node.children[i]);
+                node.labels[i] = label.substring(0, common);
+                node.children[i] = middle;
+            }
+            node = node.children[i];
+            pos += common;
+        }
+        if (!node.terminal) {
+            node.terminal = true;
+            size++;
+        }
+    }
+
+    private static int commonPrefixLength(String label, String key, int offset) {
+        int max = Math.min(label.length(), key.length() - offset);
+        int n = 0;
+        while (n < max && label.charAt(n) == key.charAt(offset + n)) {
+            n++;
+        }
+        return n;
+    }
+
+    /**
+     * Determines whether this trie contains a string.
+     * @param key the string
+     * @return true if the string was added to this trie
+     */
+    public boolean contains(String key) {
+        Node node = root;
+        int pos = 0;
+        while (pos < key.length()) {
+            int i = node.find(key.charAt(pos));
+            if (i < 0 || !key.startsWith(node.labels[i], pos)) {
+                return false;
+            }
+            pos += node.labels[i].length();
+            node = node.children[i];
+        }
+        return node.terminal;
+    }
+
+    /**
+     * Gets the strings in this trie that start with a prefix.
+     * @param prefix the prefix
+     * @return a new list of strings, in lexicographic order
+     */
+    public List<String> withPrefix(String prefix) {
+        List<String> results = new ArrayList<>();
+        Node node = root;
+        StringBuilder path = new StringBuilder(prefix.length() + 16);
+        int pos = 0;
+        while (pos < prefix.length()) {
+            int i = node.find(prefix.charAt(pos));
+            if (i < 0) {
+                return results;
+            }
+            String label = node.labels[i];
+            int remaining = prefix.length() - pos;
+            if (remaining < label.length()) {
+                if (!label.regionMatches(0, prefix, pos, remaining)) {
+                    return results;
+                }
+            } else if (!prefix.startsWith(label, pos)) {
+                return results;
+            }
+            path.append(label);
+            pos += label.length();
+            node = node.children[i];
+        }
+        collect(node, path, results);
+        return results;
+    }
+
+    private static void collect(Node node, StringBuilder path, List<String> results) {
+        if (node.terminal) {
+            results.add(path.toString());
+        }
+        int length = path.length();
+        for (int i = 0; i < node.labels.length; i++) {
+            path.append(node.labels[i]);
+            collect(node.children[i], path, results);
+            path.setLength(length);
+        }
+    }
+
+    private static final class Node {
+
+        private static final String[] NO_LABELS = {};
+        private static final Node[] NO_CHILDREN = {};
+
+        public String[] labels = NO_LABELS;
+        public Node[] children = NO_CHILDREN;
+        public boolean terminal;
+
+        /**
+         * Finds the edge whose label starts with a character.
+         * @return the index of the edge, or {@code -(insertionPoint + 1)} if there is none
+         */
+        public int find(char first) {
+            int low = 0, high = labels.length - 1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                char c = labels[mid].charAt(0);
+                if (c < first) {
+                    low = mid + 1;
+                } else if (c > first) {
+                    high = mid - 1;
+                } else {
+                    return mid;
+                }
+            }
+            return -(low + 1);
+        }
+
+        public void insert(int index, String label, Node child) {
+            int n = labels.length;
+            String[] newLabels = Arrays.copyOf(labels, n + 1);
+            Node[] newChildren = Arrays.copyOf(children, n + 1);
+            System.arraycopy(newLabels, index, newLabels, index + 1, n - index);
+            System.arraycopy(newChildren, index, newChildren, index + 1, n - index);
+            newLabels[index] = label;
+            newChildren[index] = child;
+            labels = newLabels;
+            children = newChildren;
+        }
+    }
+}
@@ -0,0 +1,337 @@
+package io.github.mike10004.nitsick;
+
+import javax.annotation.Nullable;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Layer that provides settings overridden within a scope on the current thread.
+ * Place this layer on top of other layers, for example with
+ * {@link LayeredSettingSet#withTopLayer(SettingLayer)}, so that tests running
+ * in parallel may each override settings without affecting one another.
+ *
+ * <pre>{@code
+ * try (ScopedOverrideLayer.Scope ignore = overrides.override("foo.timeout", "5s")) {
+ *     // settings.get("timeout") returns "5s" on this thread
+ * }
+ * }</pre>
+ *
+ * <p>Overrides are visible to the thread that opened the scope. If the layer
+ * is constructed as inheritable, they are also visible to threads created
+ * within the scope, until the scope is closed. Overrides may be propagated explicitly
+ * to tasks run on other threads by {@link #wrap(Runnable) wrapping} the tasks or
+ * by submitting them to a {@link #propagating(ExecutorService) propagating executor},
+ * which may also be passed to the asynchronous methods of
+ * {@link java.util.concurrent.CompletableFuture}. Propagated overrides, like
+ * inherited ones, stop being visible when the scope that defined them is closed.
+ *
+ * <p>On a thread with no scope, a lookup reads the thread-local frame and returns
+ * null, regardless of the scopes open on other threads.
+ */
+public class ScopedOverrideLayer implements SettingLayer {
+
+    /*
+     * Innermost frame visible to each thread. A frame holds the overrides of one scope
+     * and refers to the frame of the enclosing scope. Threads that inherit or are
+     * propagated a frame share the frame object, so closing the scope is visible to them.
+     */
+    private final ThreadLocal<Frame> frames;
+
+    /**
+     * Constructs an instance whose overrides are not inherited by child threads.
+     */
+    public ScopedOverrideLayer() {
+        this(false);
+    }
+
+    /**
+     * Constructs an instance.
+     * @param inheritable true if threads created within a scope should see the overrides of that scope
+     */
+    public ScopedOverrideLayer(boolean inheritable) {
+        frames = inheritable ? new InheritableThreadLocal<>() : new ThreadLocal<>();
+    }
+
+    @Nullable
+    private Frame currentFrame() {
+        Frame frame = frames.get();
+        if (frame != null && frame.closed) {
+            // inherited or propagated from a scope that has since been closed
+            Frame open = frame.parent;
+            while (open != null && open.closed) {
+                open = open.parent;
+            }
+            if (open == null) {
+                frames.remove();
+            } else {
+                frames.set(open);
+            }
+            frame = open;
+        }
+        return frame;
+    }
+
+    @Override
+    public String apply(String key) {
+        for (Frame frame = currentFrame(); frame != null; frame = frame.parent) {
+            if (!frame.closed) {
+                String value = frame.values.get(key);
+                if (value != null) {
+                    return value;
+                }
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public Map<String, String> applyAll(Collection<String> keys) {
+        if (currentFrame() == null) {
+            return new HashMap<>();
+        }
+        return SettingLayer.super.applyAll(keys);
+    }
+
+    /**
+     * Captures the overrides visible to the current thread.
+     * @param keyPrefix the key prefix
+     * @return a new map
+     */
+    @Override
+    public Map<String, String> capture(String keyPrefix) {
+        Map<String, String> captured = new LinkedHashMap<>();
+        for (Frame frame = currentFrame(); frame != null; frame = frame.parent) {
+            if (!frame.closed) {
+                frame.values.forEach((key, value) -> {
+                    if (key.startsWith(keyPrefix)) {
+                        captured.putIfAbsent(key, value);
+                    }
+                });
+            }
+        }
+        return captured;
+    }
+
+    /**
+     * Opens a scope on the current thread in which a key has the given value.
+     * @param key the key
+     * @param value the value
+     * @return the scope, which must be closed on the current thread
+     */
+    public Scope override(String key, String value) {
+        return override(Collections.singletonMap(requireNonNull(key, "key"), requireNonNull(value, "value")));
+    }
+
+    /**
+     * Opens a scope on the current thread in which some keys have the given values.
+     * Overrides of any enclosing scope remain visible unless overridden again.
+     * @param settings map of keys to values
+     * @return the scope, which must be closed on the current thread
+     */
+    public Scope override(Map<String, String> settings) {
+        Map<String, String> values = new HashMap<>();
+        settings.forEach((key, value) -> values.put(requireNonNull(key, "key"), requireNonNull(value, "value")));
+        Frame frame = new Frame(Collections.unmodifiableMap(values), currentFrame());
+        frames.set(frame);
+        return new Scope(frame);
+    }
+
+    private void restore(@Nullable Frame previous) {
+        if (previous == null) {
+            frames.remove();
+        } else {
+            frames.set(previous);
+        }
+    }
+
+    private static final class Frame {
+
+        public final Map<String, String> values;
+        @Nullable
+        public final Frame parent;
+        public volatile boolean closed;
+
+        public Frame(Map<String, String> values, @Nullable Frame parent) {
+            this.values = values;
+            this.parent = parent;
+        }
+    }
+
+    /**
+     * Scope in which overrides are visible. Scopes must be closed on the thread
+     * that opened them, in the reverse order in which they were opened.
+     */
+    public final class Scope implements AutoCloseable {
+
+        private final Frame frame;
+
+        private Scope(Frame frame) {
+            this.frame = frame;
+        }
+
+        /**
+         * Closes the scope, restoring the overrides of the enclosing scope.
+         * Threads that inherited or were propagated the overrides of this scope
+         * no longer see them.
+         * @throws IllegalStateException if this scope is not the innermost scope of the current thread
+         */
+        @Override
+        public void close() {
+            if (frame.closed) {
+                return;
+            }
+            if (frames.get() != frame) {
+                throw new IllegalStateException("scope must be closed on the thread that opened it, after any nested scopes");
+            }
+            frame.closed = true;
+            restore(frame.parent);
+        }
+    }
+
+    /**
+     * Wraps a task such that it runs with the overrides visible to the current thread.
+     * @param task the task
+     * @return the wrapped task, or the task itself if no overrides are visible
+     */
+    public Runnable wrap(Runnable task) {
+        requireNonNull(task, "task");
+        Frame captured = currentFrame();
+        if (captured == null) {
+            return task;
+        }
+        return () -> {
+            Frame prior = frames.get();
+            frames.set(captured);
+            try {
+                task.run();
+            } finally {
+                restore(prior);
+            }
+        };
+    }
+
+    /**
+     * Wraps a task such that it runs with the overrides visible to the current thread.
+     * @param task the task
+     * @param <T> type of the task result
+     * @return the wrapped task, or the task itself if no overrides are visible
+     */
+    public <T> Callable<T> wrap(Callable<T> task) {
+        requireNonNull(task, "task");
+        Frame captured = currentFrame();
+        if (captured == null) {
+            return task;
+        }
+        return () -> {
+            Frame prior = frames.get();
+            frames.set(captured);
+            try {
+                return task.call();
+            } finally {
+                restore(prior);
+            }
+        };
+    }
+
+    /**
+     * Wraps a supplier such that it runs with the overrides visible to the current thread.
+     * This is useful with {@link java.util.concurrent.CompletableFuture#supplyAsync(Supplier)}.
+     * @param supplier the supplier
+     * @param <T> type of the supplied value
+     * @return the wrapped supplier, or the supplier itself if no overrides are visible
+     */
+    public <T> Supplier<T> wrapSupplier(Supplier<T> supplier) {
+        requireNonNull(supplier, "supplier");
+        Frame captured = currentFrame();
+        if (captured == null) {
+            return supplier;
+        }
+        return () -> {
+            Frame prior = frames.get();
+            frames.set(captured);
+            try {
+                return supplier.get();
+            } finally {
+                restore(prior);
+            }
+        };
+    }
+
+    /**
+     * Returns an executor that runs each task with the overrides visible
+     * to the thread that submitted it.
+     * @param executor the underlying executor
+     * @return a propagating executor
+     */
+    public Executor propagating(Executor executor) {
+        requireNonNull(executor, "executor");
+        return task -> executor.execute(wrap(task));
+    }
+
+    /**
+     * Returns an executor service that runs each task with the overrides visible
+     * to the thread that submitted it. Shutting down the returned service shuts
+     * down the underlying service.
+     * @param executorService the underlying executor service
+     * @return a propagating executor service
+     */
+    public ExecutorService propagating(ExecutorService executorService) {
+        return new PropagatingExecutorService(requireNonNull(executorService, "executorService"));
+    }
+
+    private final class PropagatingExecutorService extends AbstractExecutorService {
+
+        private final ExecutorService delegate;
+
+        public PropagatingExecutorService(ExecutorService delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public void execute(Runnable command) {
+            delegate.execute(wrap(command));
+        }
+
+        @Override
+        public void shutdown() {
+            delegate.shutdown();
+        }
+
+        @Override
+        public List<Runnable> shutdownNow() {
+            return delegate.shutdownNow();
+        }
+
+        @Override
+        public boolean isShutdown() {
+            return delegate.isShutdown();
+        }
+
+        @Override
+        public boolean isTerminated() {
+            return delegate.isTerminated();
+        }
+
+        @Override
+        public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+            return delegate.awaitTermination(timeout, unit);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "ScopedOverrideLayer{}";
+    }
+}
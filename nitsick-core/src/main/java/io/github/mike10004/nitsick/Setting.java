@@ -0,0 +1,145 @@
+package io.github.mike10004.nitsick;
+
+import javax.annotation.Nullable;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Value class that describes a typed setting: the identifiers under which it
+ * is defined, the parser of its value, and its default value. An empty string
+ * as a value is interpreted to mean the setting is not defined.
+ * @param <T> type of the parsed value
+ * @see SettingSet#bind(Setting)
+ */
+public final class Setting<T> {
+
+    /*
+     * Parsers shared by the typed factories here and the typed getters of setting sets.
+     * Parsed values are cached per parser instance, so reading a setting through either
+     * path must use the same instance to reuse a single cache entry.
+     */
+    static final Function<String, Integer> INTEGER_PARSER = Integer::valueOf;
+    static final Function<String, Boolean> BOOLEAN_PARSER = Truthiness::parseTruthy;
+    static final Function<String, Duration> DURATION_PARSER = Durations::parseDuration;
+
+    private final String[] identifierAliases;
+    private final Function<? super String, T> parser;
+    @Nullable
+    private final T defaultValue;
+
+    private Setting(String[] identifierAliases, Function<? super String, T> parser, @Nullable T defaultValue) {
+        if (identifierAliases.length == 0) {
+            throw new IllegalArgumentException("at least one identifier is required");
+        }
+        for (String identifier : identifierAliases) {
+            requireNonNull(identifier, "identifier");
+        }
+        this.identifierAliases = identifierAliases;
+        this.parser = requireNonNull(parser, "parser");
+        this.defaultValue = defaultValue;
+    }
+
+    /**
+     * Creates a setting descriptor.
+     * @param identifier the identifier
+     * @param parser value parser
+     * @param defaultValue value if the setting is not defined
+     * @param <T> type of the parsed value
+     * @return a new descriptor
+     */
+    public static <T> Setting<T> of(String identifier, Function<? super String, T> parser, @Nullable T defaultValue) {
+        return new Setting<>(new String[]{identifier}, parser, defaultValue);
+    }
+
+    /**
+     * Creates a setting descriptor.
+     * @param identifierAliases one or more identifiers under which the setting is defined, in order of precedence
+     * @param parser value parser
+     * @param defaultValue value if the setting is not defined
+     * @param <T> type of the parsed value
+     * @return a new descriptor
+     */
+    public static <T> Setting<T> of(String[] identifierAliases, Function<? super String, T> parser, @Nullable T defaultValue) {
+        return new Setting<>(identifierAliases.clone(), parser, defaultValue);
+    }
+
+    /**
+     * Creates a descriptor of a string setting.
+     * @param identifier the identifier
+     * @param defaultValue value if the setting is not defined
+     * @return a new descriptor
+     */
+    public static Setting<String> ofString(String identifier, @Nullable String defaultValue) {
+        return of(identifier, Function.identity(), defaultValue);
+    }
+
+    /**
+     * Creates a descriptor of an integer setting.
+     * @param identifier the identifier
+     * @param defaultValue value if the setting is not defined
+     * @return a new descriptor
+     */
+    public static Setting<Integer> ofInt(String identifier, int defaultValue) {
+        return of(identifier, INTEGER_PARSER, defaultValue);
+    }
+
+    /**
+     * Creates a descriptor of a boolean setting.
+     * @param identifier the identifier
+     * @param defaultValue value if the setting is not defined
+     * @return a new descriptor
+     * @see Truthiness#parseTruthy(String)
+     */
+    public static Setting<Boolean> ofBoolean(String identifier, boolean defaultValue) {
+        return of(identifier, BOOLEAN_PARSER, defaultValue);
+    }
+
+    /**
+     * Creates a descriptor of a duration setting.
+     * @param identifier the identifier
+     * @param defaultValue value if the setting is not defined
+     * @return a new descriptor
+     * @see Durations#parseDuration(String)
+     */
+    public static Setting<Duration> ofDuration(String identifier, Duration defaultValue) {
+        return of(identifier, DURATION_PARSER, defaultValue);
+    }
+
+    /**
+     * Returns a new stream of the identifiers under which this setting is defined.
+     * @return a stream of aliases
+     */
+    public Stream<String> aliases() {
+        return Arrays.stream(identifierAliases);
+    }
+
+    String[] identifierAliases() {
+        return identifierAliases.clone();
+    }
+
+    /**
+     * Gets the value parser.
+     * @return the parser
+     */
+    public Function<? super String, T> parser() {
+        return parser;
+    }
+
+    /**
+     * Gets the default value of the setting.
+     * @return the default value
+     */
+    @Nullable
+    public T defaultValue() {
+        return defaultValue;
+    }
+
+    @Override
+    public String toString() {
+        return "Setting{aliases=" + Arrays.toString(identifierAliases) + ", defaultValue=" + defaultValue + "}";
+    }
+}
@@ -1,6 +1,14 @@
 package io.github.mike10004.nitsick;
 
+import javax.annotation.Nullable;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Consumer;
 import java.util.function.Function;
+import java.util.function.Supplier;
 
 /**
  * Interface of a service that tranforms keys into values.
@@ -16,6 +24,16 @@ public interface SettingLayer extends Function<String, String> {
         return SyspropsLayer.getInstance();
     }
 
+    /**
+     * Compares the current system properties with those seen at the previous refresh
+     * and notifies subscribers to the {@link #systemPropertiesLayer() system properties layer}
+     * of the keys whose values changed. System properties are not otherwise watched,
+     * so this method must be called after properties are changed for subscribers to be notified.
+     */
+    static void refreshSystemProperties() {
+        SyspropsLayer.refresh();
+    }
+
     /**
      * Returns a setting layer that represents the environment of the process.
      * This layer provides access to the values of environment variables.
@@ -25,5 +43,68 @@ public interface SettingLayer extends Function<String, String> {
     static SettingLayer environmentLayer() {
         return EnvironmentLayer.getInstance();
     }
-    
+
+    /**
+     * Binds a key to this layer, producing a supplier of the value of that key.
+     * Layers that transform keys before looking up values may perform the
+     * transformation once here instead of on every invocation of the supplier.
+     * @param key the key
+     * @return a supplier of the value mapped to the key in this layer
+     */
+    default Supplier<String> bind(String key) {
+        return () -> apply(key);
+    }
+
+    /**
+     * Gets the values of multiple keys. Layers whose values are expensive to fetch
+     * one at a time, such as those backed by a remote service, may override this
+     * method to fetch all the values in one request.
+     * @param keys the keys
+     * @return a new map of keys to values, containing only the keys that are defined in this layer
+     */
+    default Map<String, String> applyAll(Collection<String> keys) {
+        Map<String, String> values = new HashMap<>();
+        for (String key : keys) {
+            String value = apply(key);
+            if (value != null) {
+                values.put(key, value);
+            }
+        }
+        return values;
+    }
+
+    /**
+     * Captures the settings of this layer whose keys start with a given prefix.
+     * Layers that cannot enumerate their keys return null.
+     * @param keyPrefix the key prefix; an empty string means all keys
+     * @return a new map of keys to values, or null if this layer does not support enumeration
+     */
+    @Nullable
+    default Map<String, String> capture(String keyPrefix) {
+        return null;
+    }
+
+    /**
+     * Gets the keys of this layer that start with a given prefix.
+     * The default implementation gets the keys from {@link #capture(String)}.
+     * @param keyPrefix the key prefix; an empty string means all keys
+     * @return a new sorted set of keys, or null if this layer does not support enumeration
+     */
+    @Nullable
+    default Set<String> keys(String keyPrefix) {
+        Map<String, String> captured = capture(keyPrefix);
+        return captured == null ? null : new TreeSet<>(captured.keySet());
+    }
+
+    /**
+     * Subscribes to notifications of changes to the values of keys in this layer.
+     * The listener is invoked with the set of keys whose values changed.
+     * Layers that cannot detect changes return a subscription that does nothing.
+     * @param listener the listener
+     * @return a subscription that may be closed to stop notifications
+     */
+    default Subscription subscribe(Consumer<? super Set<String>> listener) {
+        return Subscription.none();
+    }
+
 }
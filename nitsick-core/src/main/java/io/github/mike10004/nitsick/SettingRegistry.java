@@ -0,0 +1,107 @@
+package io.github.mike10004.nitsick;
+
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.Function;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Registry of the settings used by a project. Settings are declared up front,
+ * and {@link #prefetch()} may be invoked early, for example when the JVM starts,
+ * to resolve and parse all declared settings in parallel. After a setting is
+ * resolved, reading its value is a single field load. Declared settings are not
+ * notified of changes; their values are resolved again only when the registry
+ * prefetches its settings.
+ *
+ * <pre>{@code
+ * SettingRegistry registry = new SettingRegistry(SettingSet.system("foo"));
+ * BoundSetting<Integer> port = registry.declare(Setting.ofInt("server.port", 8080));
+ * registry.prefetch();
+ * int p = port.get();
+ * }</pre>
+ */
+public final class SettingRegistry {
+
+    private final SettingSet settings;
+    private final List<BoundSetting<?>> declarations = new CopyOnWriteArrayList<>();
+
+    /**
+     * Constructs an instance.
+     * @param settings the setting set from which declared settings are resolved
+     */
+    public SettingRegistry(SettingSet settings) {
+        this.settings = requireNonNull(settings, "settings");
+    }
+
+    /**
+     * Declares a setting.
+     * @param identifier the identifier
+     * @param parser value parser
+     * @param defaultValue value if the setting is not defined
+     * @param <T> type of the parsed value
+     * @return a handle that provides the parsed value
+     */
+    public <T> BoundSetting<T> declare(String identifier, Function<? super String, T> parser, @Nullable T defaultValue) {
+        return declare(Setting.of(identifier, parser, defaultValue));
+    }
+
+    /**
+     * Declares a setting defined under one or more identifier aliases.
+     * @param identifierAliases one or more identifiers under which the setting is defined
+     * @param parser value parser
+     * @param defaultValue value if the setting is not defined
+     * @param <T> type of the parsed value
+     * @return a handle that provides the parsed value
+     */
+    public <T> BoundSetting<T> declare(String[] identifierAliases, Function<? super String, T> parser, @Nullable T defaultValue) {
+        return declare(Setting.of(identifierAliases, parser, defaultValue));
+    }
+
+    /**
+     * Declares a setting.
+     * @param setting the setting descriptor
+     * @param <T> type of the parsed value
+     * @return a handle that provides the parsed value
+     */
+    public <T> BoundSetting<T> declare(Setting<T> setting) {
+        BoundSetting<T> bound = new BoundSetting<>(setting, settings.compile(setting.identifierAliases()));
+        declarations.add(bound);
+        return bound;
+    }
+
+    /**
+     * Resolves and parses all declared settings in parallel using the common fork-join pool.
+     * Settings that were already resolved are resolved again, so this method
+     * may also be used to pick up changed values.
+     * @throws RuntimeException if resolving or parsing any setting fails
+     */
+    public void prefetch() {
+        prefetch(ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Resolves and parses all declared settings in parallel using the given pool.
+     * @param pool the pool
+     * @throws RuntimeException if resolving or parsing any setting fails
+     */
+    public void prefetch(ForkJoinPool pool) {
+        List<ForkJoinTask<?>> tasks = new ArrayList<>(declarations.size());
+        for (BoundSetting<?> declared : declarations) {
+            tasks.add(ForkJoinTask.adapt(declared::resolve));
+        }
+        pool.invoke(ForkJoinTask.adapt(() -> ForkJoinTask.invokeAll(tasks)));
+    }
+
+    /**
+     * Gets the number of declared settings.
+     * @return the number of declared settings
+     */
+    public int size() {
+        return declarations.size();
+    }
+}
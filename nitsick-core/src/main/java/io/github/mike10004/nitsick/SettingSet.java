@@ -1,8 +1,15 @@
 package io.github.mike10004.nitsick;
 
 import javax.annotation.Nullable;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.stream.Stream;
 
@@ -29,7 +36,20 @@ public interface SettingSet {
      * @return the parsed value
      */
     default <T, U extends T> T getTyped(Stream<String> identifierAliases, Function<? super String, U> parser, @Nullable U valueIfUndefined) {
-        return getOpt(identifierAliases).map(Strings::emptyToNull).map(parser).orElse(valueIfUndefined);
+        return Strings.parseNonEmpty(get(identifierAliases), parser, valueIfUndefined);
+    }
+
+    /**
+     * Parses a value from this setting set. An empty string as a value
+     * is interpreted to mean the setting is not defined.
+     * @param identifierAliases one or more identifiers
+     * @param parser value parser
+     * @param valueIfUndefined value to return if setting is not defined
+     * @param <T> type of the parsed value
+     * @return the parsed value
+     */
+    default <T, U extends T> T getTyped(String[] identifierAliases, Function<? super String, U> parser, @Nullable U valueIfUndefined) {
+        return Strings.parseNonEmpty(get(identifierAliases), parser, valueIfUndefined);
     }
 
     /**
@@ -42,7 +62,7 @@ public interface SettingSet {
      * @return the parsed value
      */
     default <T, U extends T> T getTyped(String identifier, Function<? super String, U> parser, @Nullable U valueIfUndefined) {
-        return getTyped(Stream.of(identifier), parser, valueIfUndefined);
+        return Strings.parseNonEmpty(get(identifier), parser, valueIfUndefined);
     }
 
     /**
@@ -53,7 +73,7 @@ public interface SettingSet {
      * @see Truthiness#parseTruthy(String)
      */
     default boolean get(String identifier, boolean defaultValue) {
-        return getTyped(identifier, Truthiness::parseTruthy, defaultValue);
+        return getTyped(identifier, Setting.BOOLEAN_PARSER, defaultValue);
     }
 
     /**
@@ -63,7 +83,7 @@ public interface SettingSet {
      * @return integer value of the setting
      */
     default int get(String identifier, int defaultValue) {
-        return getTyped(identifier, Integer::parseInt, defaultValue);
+        return getTyped(identifier, Setting.INTEGER_PARSER, defaultValue);
     }
 
     /**
@@ -104,6 +124,110 @@ public interface SettingSet {
     @Nullable
     String get(Stream<String> identifierAliases);
 
+    /**
+     * Gets the value of a setting.
+     * @param identifierAliases one or more identifiers under which the setting is defined
+     * @return the value of the setting, or null if not defined
+     */
+    @Nullable
+    default String get(String[] identifierAliases) {
+        return get(Arrays.stream(identifierAliases));
+    }
+
+    /**
+     * Gets the value of a setting asynchronously. The default implementation
+     * performs the lookup on the calling thread and returns a completed future.
+     * @param identifier the identifier
+     * @return a future that completes with the value of the setting, or with null if not defined
+     */
+    default CompletableFuture<String> getAsync(String identifier) {
+        return getAsync(new String[]{identifier});
+    }
+
+    /**
+     * Gets the value of a setting asynchronously. The default implementation
+     * performs the lookup on the calling thread and returns a completed future.
+     * @param identifierAliases one or more identifiers under which the setting is defined
+     * @return a future that completes with the value of the setting, or with null if not defined
+     */
+    default CompletableFuture<String> getAsync(String[] identifierAliases) {
+        CompletableFuture<String> future = new CompletableFuture<>();
+        try {
+            future.complete(get(identifierAliases));
+        } catch (RuntimeException e) {
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
+    /**
+     * Gets the values of multiple settings.
+     * Implementations may resolve all the settings in a single pass over their sources.
+     * @param identifiers the identifiers
+     * @return a new map of identifiers to values, containing only the identifiers of settings that are defined
+     */
+    default Map<String, String> getAll(Collection<String> identifiers) {
+        Map<String, String> values = new LinkedHashMap<>();
+        for (String identifier : identifiers) {
+            String value = get(identifier);
+            if (value != null) {
+                values.put(identifier, value);
+            }
+        }
+        return values;
+    }
+
+    /**
+     * Gets the identifiers of the settings defined in this set that start with a prefix.
+     * @param identifierPrefix the identifier prefix; an empty string means all identifiers
+     * @return a new sorted set of identifiers
+     * @throws UnsupportedOperationException if this setting set does not support enumeration
+     */
+    default Set<String> keys(String identifierPrefix) {
+        throw new UnsupportedOperationException("enumeration not supported by " + getClass().getName());
+    }
+
+    /**
+     * Compiles a lookup of the setting defined under one or more identifier aliases.
+     * The returned handle may be used repeatedly to get the value of the setting.
+     * Implementations may precompute keys so that repeat lookups are cheaper
+     * than calls to {@link #get(Stream)}.
+     * @param identifierAliases one or more identifiers under which the setting is defined
+     * @return a lookup handle
+     */
+    default CompiledLookup compile(String... identifierAliases) {
+        String[] aliases = identifierAliases.clone();
+        return () -> get(aliases);
+    }
+
+    /**
+     * Watches a setting for changes. The listener is invoked with the new value
+     * each time the value of the setting changes, and is not invoked with the value
+     * at the time the watch is created.
+     * @param identifier the identifier
+     * @param listener listener to be invoked with the new value, which may be null
+     * @return a watch handle that may be closed to stop notifications
+     * @throws UnsupportedOperationException if this setting set does not support watching
+     */
+    default SettingWatch watch(String identifier, Consumer<? super String> listener) {
+        throw new UnsupportedOperationException("watch not supported by " + getClass().getName());
+    }
+
+    /**
+     * Binds a setting descriptor to this setting set. The returned handle looks up
+     * the setting with a {@link #compile(String...) compiled lookup} the first time
+     * the value is requested and caches the raw and parsed values. The default
+     * implementation never invalidates the cached value, which is appropriate for
+     * setting sets whose values do not change; implementations whose values may
+     * change override this method.
+     * @param setting the setting descriptor
+     * @param <T> type of the parsed value
+     * @return a handle that provides the parsed value
+     */
+    default <T> BoundSetting<T> bind(Setting<T> setting) {
+        return new BoundSetting<>(setting, compile(setting.identifierAliases()));
+    }
+
     /**
      * Gets a timeouts provider for this setting set.
      * @return a new timeouts instance
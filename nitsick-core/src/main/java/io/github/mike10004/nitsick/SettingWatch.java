@@ -0,0 +1,29 @@
+package io.github.mike10004.nitsick;
+
+import javax.annotation.Nullable;
+
+/**
+ * Interface of a handle that tracks the value of a watched setting.
+ * Each time a new value is delivered to the listener, a new generation
+ * is published; reading the current generation does not block.
+ * Closing the watch stops notifications.
+ * @see SettingSet#watch(String, java.util.function.Consumer)
+ */
+public interface SettingWatch extends Subscription {
+
+    /**
+     * Gets the most recently published value of the setting.
+     * @return the value, or null if the setting is not defined
+     */
+    @Nullable
+    String get();
+
+    /**
+     * Gets the number of the most recently published generation. The generation
+     * at the time the watch is created is zero, and it is incremented each time
+     * a changed value is published.
+     * @return the generation number
+     */
+    long generation();
+
+}
@@ -0,0 +1,121 @@
+package io.github.mike10004.nitsick;
+
+import javax.annotation.Nullable;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Immutable setting set whose values were captured at a single point in time.
+ * Values are held in a table keyed by normalized identifier, so a lookup
+ * of a single identifier is a single hash probe. Identifiers are also indexed
+ * in a radix trie, so enumeration of the identifiers with a prefix takes time
+ * proportional to the length of the prefix and of the results.
+ * @see LayeredSettingSet#snapshot()
+ */
+final class SnapshotSettingSet implements SettingSet {
+
+    private final StringTable table;
+    private final RadixTrie identifiers;
+
+    /**
+     * Constructs an instance.
+     * @param table table of normalized identifiers to values
+     * @param identifiers index of the identifiers in the table
+     */
+    public SnapshotSettingSet(StringTable table, RadixTrie identifiers) {
+        this.table = requireNonNull(table);
+        this.identifiers = requireNonNull(identifiers);
+    }
+
+    /**
+     * Normalizes an identifier such that it matches the identifier portion
+     * of the key produced by {@link LayeredSettingSet#toKey(String)}.
+     * A blank identifier is normalized to the empty string, which
+     * represents the key that is the domain itself.
+     * @param identifier the identifier
+     * @return the normalized identifier
+     */
+    static String normalizeIdentifier(String identifier) {
+        int length = identifier.length();
+        if (length > 0) {
+            char first = identifier.charAt(0);
+            if (first != '.' && first > ' ' && identifier.charAt(length - 1) != '.') {
+                return identifier;
+            }
+        }
+        if (identifier.trim().isEmpty()) {
+            return "";
+        }
+        return CharMatchers.dot().trimFrom(identifier);
+    }
+
+    @Nullable
+    @Override
+    public String get(String identifier) {
+        return table.get(normalizeIdentifier(identifier));
+    }
+
+    @Nullable
+    @Override
+    public String get(Stream<String> identifierAliases) {
+        Iterator<String> it = identifierAliases.iterator();
+        while (it.hasNext()) {
+            String value = get(it.next());
+            if (value != null) {
+                return value;
+            }
+        }
+        return null;
+    }
+
+    @Nullable
+    @Override
+    public String get(String[] identifierAliases) {
+        for (String identifier : identifierAliases) {
+            String value = get(identifier);
+            if (value != null) {
+                return value;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Gets the identifiers that start with a prefix.
+     * @param identifierPrefix the identifier prefix
+     * @return a new set of identifiers, in lexicographic order
+     */
+    @Override
+    public Set<String> keys(String identifierPrefix) {
+        List<String> matches = identifiers.withPrefix(identifierPrefix);
+        Set<String> keys = new LinkedHashSet<>(matches.size() * 2);
+        for (String identifier : matches) {
+            if (!identifier.isEmpty()) {
+                keys.add(identifier);
+            }
+        }
+        return keys;
+    }
+
+    /**
+     * Compiles a lookup of a setting. Because the values of this set never
+     * change, the value is resolved once and the lookup returns it.
+     * @param identifierAliases one or more identifiers under which the setting is defined
+     * @return a lookup that returns a constant value
+     */
+    @Override
+    public CompiledLookup compile(String... identifierAliases) {
+        String value = get(identifierAliases);
+        return () -> value;
+    }
+
+    @Override
+    public String toString() {
+        return "SnapshotSettingSet{size=" + table.size() + "}";
+    }
+}
@@ -0,0 +1,69 @@
+package io.github.mike10004.nitsick;
+
+import javax.annotation.Nullable;
+import java.util.Map;
+
+/**
+ * Immutable open-addressing hash table of string keys to string values.
+ * Collisions are resolved by linear probing over a table that is kept
+ * at most half full.
+ */
+final class StringTable {
+
+    private final String[] keys;
+    private final String[] values;
+    private final int mask;
+    private final int size;
+
+    /**
+     * Constructs an instance containing the entries of a map.
+     * @param entries the entries
+     */
+    public StringTable(Map<String, String> entries) {
+        int capacity = Integer.highestOneBit(Math.max(2, entries.size()) * 2 - 1) << 1;
+        keys = new String[capacity];
+        values = new String[capacity];
+        mask = capacity - 1;
+        for (Map.Entry<String, String> entry : entries.entrySet()) {
+            int index = indexFor(entry.getKey());
+            while (keys[index] != null) {
+                index = (index + 1) & mask;
+            }
+            keys[index] = entry.getKey();
+            values[index] = entry.getValue();
+        }
+        size = entries.size();
+    }
+
+    private int indexFor(String key) {
+        int h = key.hashCode();
+        return (h ^ (h >>> 16)) & mask;
+    }
+
+    /**
+     * Gets the value mapped to a key.
+     * @param key the key
+     * @return the value, or null if the key is not in the table
+     */
+    @Nullable
+    public String get(String key) {
+        int index = indexFor(key);
+        String candidate;
+        while ((candidate = keys[index]) != null) {
+            if (candidate.equals(key)) {
+                return values[index];
+            }
+            index = (index + 1) & mask;
+        }
+        return null;
+    }
+
+    /**
+     * Gets the number of entries in the table.
+     * @return the number of entries
+     */
+    public int size() {
+        return size;
+    }
+
+}
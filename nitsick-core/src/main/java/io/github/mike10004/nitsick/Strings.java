@@ -1,5 +1,8 @@
 package io.github.mike10004.nitsick;
 
+import javax.annotation.Nullable;
+import java.util.function.Function;
+
 class Strings {
 
     private Strings() {}
@@ -10,4 +13,24 @@ class Strings {
         }
         return value;
     }
+
+    /**
+     * Parses a setting value, treating an empty string as undefined.
+     * @param value the value
+     * @param parser the parser
+     * @param valueIfUndefined value to return if the value is null or empty or the parser returns null
+     * @param <T> type of the parsed value
+     * @return the parsed value
+     */
+    public static <T, U extends T> T parseNonEmpty(@Nullable String value, Function<? super String, U> parser, @Nullable U valueIfUndefined) {
+        value = emptyToNull(value);
+        if (value == null) {
+            return valueIfUndefined;
+        }
+        return orElse(parser.apply(value), valueIfUndefined);
+    }
+
+    static <T> T orElse(@Nullable T value, @Nullable T other) {
+        return value != null ? value : other;
+    }
 }
@@ -0,0 +1,23 @@
+package io.github.mike10004.nitsick;
+
+/**
+ * Interface of a handle that represents a registration for notifications.
+ * Closing the subscription cancels the registration.
+ */
+@FunctionalInterface
+public interface Subscription extends AutoCloseable {
+
+    /**
+     * Cancels the registration. Notifications that are already being delivered may still arrive.
+     */
+    @Override
+    void close();
+
+    /**
+     * Returns a subscription that does nothing when closed.
+     * @return a subscription
+     */
+    static Subscription none() {
+        return () -> {};
+    }
+}
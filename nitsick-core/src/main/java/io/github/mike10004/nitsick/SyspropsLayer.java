@@ -1,13 +1,92 @@
 package io.github.mike10004.nitsick;
 
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Properties;
+import java.util.Set;
+import java.util.function.Consumer;
+
 class SyspropsLayer extends ForwardingLayer {
 
     private static final SyspropsLayer INSTANCE = new SyspropsLayer();
 
+    private final ChangeNotifier notifier = new ChangeNotifier();
+
+    /**
+     * System properties seen at the most recent refresh, or null if there are
+     * no subscribers.
+     */
+    private Map<String, String> lastSeen;
+
     private SyspropsLayer() {
         super(System::getProperty);
     }
 
+    @Override
+    public Map<String, String> capture(String keyPrefix) {
+        Properties properties = System.getProperties();
+        Map<String, String> captured = new LinkedHashMap<>();
+        for (String key : properties.stringPropertyNames()) {
+            if (key.startsWith(keyPrefix)) {
+                String value = properties.getProperty(key);
+                if (value != null) {
+                    captured.put(key, value);
+                }
+            }
+        }
+        return captured;
+    }
+
+    /**
+     * Subscribes to changes detected by {@link SettingLayer#refreshSystemProperties()}.
+     * The properties at the time of the subscription are the baseline for the
+     * first refresh, unless there are already other subscribers.
+     * @param listener the listener
+     * @return the subscription
+     */
+    @Override
+    public Subscription subscribe(Consumer<? super Set<String>> listener) {
+        synchronized (this) {
+            if (lastSeen == null) {
+                lastSeen = capture("");
+            }
+            return notifier.subscribe(listener);
+        }
+    }
+
+    private void refreshInstance() {
+        Set<String> changed = new HashSet<>();
+        synchronized (this) {
+            if (lastSeen == null) {
+                return;
+            }
+            if (!notifier.hasListeners()) {
+                // nobody is listening, so skip the comparison and let the next subscriber set a new baseline
+                lastSeen = null;
+                return;
+            }
+            Map<String, String> current = capture("");
+            current.forEach((key, value) -> {
+                if (!Objects.equals(value, lastSeen.get(key))) {
+                    changed.add(key);
+                }
+            });
+            for (String key : lastSeen.keySet()) {
+                if (!current.containsKey(key)) {
+                    changed.add(key);
+                }
+            }
+            lastSeen = current;
+        }
+        notifier.publish(changed);
+    }
+
+    static void refresh() {
+        INSTANCE.refreshInstance();
+    }
+
     public static SettingLayer getInstance() {
         return INSTANCE;
     }
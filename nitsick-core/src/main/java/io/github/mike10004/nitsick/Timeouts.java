@@ -1,6 +1,8 @@
 package io.github.mike10004.nitsick;
 
 import java.time.Duration;
+import java.util.function.BooleanSupplier;
+import java.util.function.Function;
 import java.util.stream.Stream;
 
 import static java.util.Objects.requireNonNull;
@@ -15,6 +17,12 @@ public class Timeouts {
     private final SettingSet settings;
     private final String infix;
 
+    /*
+     * Lookups of standard timeouts, indexed by ordinal and compiled on first use.
+     * Racing threads may each compile a lookup, but lookups are immutable and equivalent.
+     */
+    private final CompiledLookup[] standardLookups = new CompiledLookup[StandardTimeout.values().length];
+
     Timeouts(SettingSet settings) {
         this(settings, "timeout.");
     }
@@ -41,7 +49,17 @@ public class Timeouts {
      * @return a duration instance
      */
     public Duration get(String identifier, Duration defaultValue) {
-        return get(Stream.of(identifier), defaultValue);
+        return settings.getTyped(infix + identifier, Setting.DURATION_PARSER, defaultValue);
+    }
+
+    /**
+     * Gets a duration for the given identifier.
+     * @param identifierAliases one or more identifiers under which the setting is stored
+     * @param defaultValue value to return if undefined
+     * @return a duration instance
+     */
+    public Duration get(String[] identifierAliases, Duration defaultValue) {
+        return settings.getTyped(prefix(identifierAliases), Setting.DURATION_PARSER, defaultValue);
     }
 
     /**
@@ -52,7 +70,26 @@ public class Timeouts {
      */
     public Duration get(Stream<String> identifierAliases, Duration defaultValue) {
         identifierAliases = identifierAliases.map(a -> infix + a);
-        return settings.getTyped(identifierAliases, Durations::parseDuration, defaultValue);
+        return settings.getTyped(identifierAliases, Setting.DURATION_PARSER, defaultValue);
+    }
+
+    /**
+     * Compiles a lookup of the timeout setting defined under one or more identifier aliases.
+     * Use {@link CompiledLookup#getTyped(Function, Object)} with {@link Durations#parseDuration(String)}
+     * to get the duration.
+     * @param identifierAliases one or more identifiers under which the setting is stored
+     * @return a lookup handle
+     */
+    public CompiledLookup compile(String... identifierAliases) {
+        return settings.compile(prefix(identifierAliases));
+    }
+
+    private String[] prefix(String[] identifierAliases) {
+        String[] prefixed = new String[identifierAliases.length];
+        for (int i = 0; i < prefixed.length; i++) {
+            prefixed[i] = infix + identifierAliases[i];
+        }
+        return prefixed;
     }
 
     /**
@@ -61,9 +98,66 @@ public class Timeouts {
      * @return a duration instance
      */
     public Duration get(TimeoutSetting length) {
+        if (length instanceof StandardTimeout) {
+            return standardLookup((StandardTimeout) length).getTyped(Setting.DURATION_PARSER, length.defaultValue());
+        }
         return get(length.aliases(), length.defaultValue());
     }
 
+    private CompiledLookup standardLookup(StandardTimeout length) {
+        CompiledLookup lookup = standardLookups[length.ordinal()];
+        if (lookup == null) {
+            lookup = compile(length.aliases().toArray(String[]::new));
+            standardLookups[length.ordinal()] = lookup;
+        }
+        return lookup;
+    }
+
+    /**
+     * Creates a deadline that expires after the duration of the setting specified by the given key.
+     * @param length value that maps to the desired identifier
+     * @return a new deadline
+     */
+    public Deadline deadline(TimeoutSetting length) {
+        return Deadline.after(get(length));
+    }
+
+    /**
+     * Creates a deadline that expires after the duration for the given identifier.
+     * @param identifier the identifier
+     * @param defaultValue duration to use if undefined
+     * @return a new deadline
+     */
+    public Deadline deadline(String identifier, Duration defaultValue) {
+        return Deadline.after(get(identifier, defaultValue));
+    }
+
+    /**
+     * Waits until a condition is true or the duration of a timeout setting elapses.
+     * @param length value that maps to the desired identifier
+     * @param condition the condition
+     * @return true if the condition became true, false if the timeout elapsed first
+     * @throws InterruptedException if the current thread is interrupted while waiting
+     * @see Deadline#await(BooleanSupplier, WakeupSignal)
+     */
+    public boolean await(TimeoutSetting length, BooleanSupplier condition) throws InterruptedException {
+        return deadline(length).await(condition);
+    }
+
+    /**
+     * Waits until a condition is true or the duration of a timeout setting elapses.
+     * The waiting thread checks the condition early whenever the signal is signalled.
+     * @param length value that maps to the desired identifier
+     * @param condition the condition
+     * @param signal signal that wakes the waiting thread to check the condition
+     * @return true if the condition became true, false if the timeout elapsed first
+     * @throws InterruptedException if the current thread is interrupted while waiting
+     * @see Deadline#await(BooleanSupplier, WakeupSignal)
+     */
+    public boolean await(TimeoutSetting length, BooleanSupplier condition, WakeupSignal signal) throws InterruptedException {
+        return deadline(length).await(condition, requireNonNull(signal, "signal"));
+    }
+
     /**
      * Gets the duration that is the value of the setting mapped by {@link StandardTimeout#SHORT}.
      * @return the duration
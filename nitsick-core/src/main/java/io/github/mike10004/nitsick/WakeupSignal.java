@@ -0,0 +1,41 @@
+package io.github.mike10004.nitsick;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Signal that wakes threads waiting for a condition with
+ * {@link Deadline#await(java.util.function.BooleanSupplier, WakeupSignal)}.
+ * Code that may make the condition true invokes {@link #signal()}, so that
+ * waiting threads check the condition immediately instead of at the end of
+ * their current backoff interval. Signals are only hints; the condition is
+ * always checked, and waiters that are not signalled still poll it.
+ */
+public final class WakeupSignal {
+
+    private final Set<Thread> waiters = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Constructs an instance.
+     */
+    public WakeupSignal() {
+    }
+
+    /**
+     * Wakes all threads currently waiting on this signal.
+     */
+    public void signal() {
+        for (Thread waiter : waiters) {
+            LockSupport.unpark(waiter);
+        }
+    }
+
+    void register(Thread waiter) {
+        waiters.add(waiter);
+    }
+
+    void deregister(Thread waiter) {
+        waiters.remove(waiter);
+    }
+}
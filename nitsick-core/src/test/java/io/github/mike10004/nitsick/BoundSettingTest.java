@@ -0,0 +1,109 @@
+package io.github.mike10004.nitsick;
+
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import static org.junit.Assert.*;
+
+public class BoundSettingTest {
+
+    @Test
+    public void get() {
+        AtomicInteger parses = new AtomicInteger();
+        Setting<Integer> setting = Setting.of(new String[]{"n", "number"}, value -> {
+            parses.incrementAndGet();
+            return Integer.valueOf(value);
+        }, -1);
+        MutableLayer layer = new MutableLayer(Utils.map("a.number", "3"));
+        BoundSetting<Integer> bound = LayeredSettingSet.of("a", layer).bind(setting);
+        assertEquals(Integer.valueOf(3), bound.get());
+        assertEquals(Integer.valueOf(3), bound.get());
+        assertEquals(1, parses.get());
+        layer.set("a.number", "4");
+        assertEquals(Integer.valueOf(4), bound.get());
+        assertEquals(2, parses.get());
+        layer.set("a.n", "5");
+        assertEquals(Integer.valueOf(5), bound.get());
+        assertEquals("5", bound.getRaw());
+        layer.setAll(Utils.map("a.n", "", "a.number", null));
+        assertEquals(Integer.valueOf(-1), bound.get());
+        assertEquals(3, parses.get());
+    }
+
+    @Test
+    public void get_cachesRawValue() {
+        AtomicInteger lookups = new AtomicInteger();
+        MutableLayer layer = new MutableLayer(Utils.map("a.n", "3")) {
+            @Override
+            public String apply(String key) {
+                lookups.incrementAndGet();
+                return super.apply(key);
+            }
+        };
+        BoundSetting<Integer> bound = LayeredSettingSet.of("a", layer).bind(Setting.ofInt("n", 0));
+        assertFalse(bound.isResolved());
+        assertEquals(Integer.valueOf(3), bound.get());
+        int resolvedLookups = lookups.get();
+        for (int i = 0; i < 10; i++) {
+            assertEquals(Integer.valueOf(3), bound.get());
+        }
+        assertEquals("layers are not consulted again until a change is reported", resolvedLookups, lookups.get());
+        layer.set("a.other", "x");
+        assertTrue("changes to other keys do not invalidate", bound.isResolved());
+        layer.set("a.n", "4");
+        assertFalse(bound.isResolved());
+        assertEquals(Integer.valueOf(4), bound.get());
+    }
+
+    @Test
+    public void get_invalidatedDuringResolve() {
+        MutableLayer layer = new MutableLayer(Utils.map("a.n", "1"));
+        SettingLayer racing = new SettingLayer() {
+            @Override
+            public String apply(String key) {
+                String value = layer.apply(key);
+                if ("1".equals(value)) {
+                    // the value changes after it was read
+                    layer.set(key, "2");
+                }
+                return value;
+            }
+
+            @Override
+            public Subscription subscribe(Consumer<? super Set<String>> listener) {
+                return layer.subscribe(listener);
+            }
+        };
+        BoundSetting<Integer> bound = LayeredSettingSet.of("a", racing).bind(Setting.ofInt("n", 0));
+        assertEquals(Integer.valueOf(1), bound.get());
+        assertFalse("stale value must not be cached", bound.isResolved());
+        assertEquals(Integer.valueOf(2), bound.get());
+    }
+
+    @Test
+    public void factories() {
+        SettingSet s = LayeredSettingSet.of("a", Utils.layer("a.s", "x", "a.i", "7", "a.b", "true", "a.d", "2s"));
+        assertEquals("x", s.bind(Setting.ofString("s", null)).get());
+        assertEquals(Integer.valueOf(7), s.bind(Setting.ofInt("i", 0)).get());
+        assertEquals(Boolean.TRUE, s.bind(Setting.ofBoolean("b", false)).get());
+        assertEquals(Duration.ofSeconds(2), s.bind(Setting.ofDuration("d", Duration.ZERO)).get());
+        assertEquals(Integer.valueOf(9), s.bind(Setting.ofInt("undefined", 9)).get());
+    }
+
+    @Test
+    public void registry() {
+        SettingRegistry registry = new SettingRegistry(LayeredSettingSet.of("a", Utils.layer("a.i", "7")));
+        BoundSetting<Integer> declared = registry.declare(Setting.ofInt("i", 0));
+        registry.prefetch();
+        assertEquals(Integer.valueOf(7), declared.get());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void noAliases() {
+        Setting.of(new String[0], Integer::valueOf, 0);
+    }
+}
@@ -0,0 +1,134 @@
+package io.github.mike10004.nitsick;
+
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.*;
+
+public class CachingLayerTest {
+
+    private final Map<String, String> values = Utils.map("a.b", "1", "a.c", "2");
+    private final AtomicInteger requests = new AtomicInteger();
+    private final SettingLayer underlying = new ForwardingLayer(key -> {
+        requests.incrementAndGet();
+        return values.get(key);
+    });
+
+    @Test
+    public void apply() {
+        CachingLayer layer = new CachingLayer(underlying, 10);
+        assertEquals("1", layer.apply("a.b"));
+        assertEquals("1", layer.apply("a.b"));
+        assertNull(layer.apply("a.x"));
+        assertNull(layer.apply("a.x"));
+        assertEquals(2, requests.get());
+        assertEquals(2, layer.hitCount());
+        assertEquals(2, layer.missCount());
+    }
+
+    @Test
+    public void invalidate() {
+        CachingLayer layer = new CachingLayer(underlying, 10);
+        assertEquals("1", layer.apply("a.b"));
+        values.put("a.b", "3");
+        assertEquals("1", layer.apply("a.b"));
+        layer.invalidate("a.b");
+        assertEquals("3", layer.apply("a.b"));
+        values.put("a.b", "4");
+        layer.invalidateAll();
+        assertEquals(0, layer.size());
+        assertEquals("4", layer.apply("a.b"));
+    }
+
+    @Test
+    public void evict() {
+        CachingLayer layer = new CachingLayer(underlying, 1);
+        layer.apply("a.b");
+        layer.apply("a.c");
+        assertEquals(1, layer.size());
+        layer.apply("a.b");
+        assertEquals(3, requests.get());
+    }
+
+    @Test
+    public void expire() {
+        AtomicLong ticker = new AtomicLong();
+        CachingLayer layer = new CachingLayer(underlying, 10, Duration.ofSeconds(1), ticker::get);
+        layer.apply("a.b");
+        ticker.addAndGet(Duration.ofMillis(999).toNanos());
+        layer.apply("a.b");
+        assertEquals(1, requests.get());
+        ticker.addAndGet(Duration.ofMillis(1).toNanos());
+        layer.apply("a.b");
+        assertEquals(2, requests.get());
+    }
+
+    @Test
+    public void subscribe_invalidates() {
+        MutableLayer mutable = new MutableLayer(Utils.map("a.b", "1"));
+        CachingLayer layer = new CachingLayer(mutable, 10);
+        assertEquals("1", layer.apply("a.b"));
+        List<String> seen = new ArrayList<>();
+        try (Subscription ignore = layer.subscribe(keys -> seen.add(layer.apply("a.b")))) {
+            mutable.set("a.b", "2");
+        }
+        assertEquals(Collections.singletonList("2"), seen);
+    }
+
+    @Test
+    public void applyAll() {
+        List<Collection<String>> batches = new ArrayList<>();
+        SettingLayer batching = new ForwardingLayer(values::get) {
+            @Override
+            public Map<String, String> applyAll(Collection<String> keys) {
+                batches.add(new ArrayList<>(keys));
+                return super.applyAll(keys);
+            }
+        };
+        CachingLayer layer = new CachingLayer(batching, 10);
+        assertEquals("1", layer.apply("a.b"));
+        assertEquals(Utils.map("a.b", "1", "a.c", "2"), layer.applyAll(Arrays.asList("a.b", "a.c", "a.x")));
+        assertEquals(Utils.map("a.b", "1", "a.c", "2"), layer.applyAll(Arrays.asList("a.b", "a.c", "a.x")));
+        assertEquals(Collections.singletonList(Arrays.asList("a.c", "a.x")), batches);
+        assertEquals(4, layer.hitCount());
+        assertEquals(3, layer.missCount());
+    }
+
+    @Test
+    public void invalidateDuringFetch() {
+        AtomicReference<CachingLayer> layerRef = new AtomicReference<>();
+        SettingLayer changing = new ForwardingLayer(key -> {
+            String value = values.get(key);
+            // the value changes and the cache is invalidated after the underlying layer read it
+            values.put(key, "changed");
+            layerRef.get().invalidate(key);
+            return value;
+        }) {
+            @Override
+            public Map<String, String> applyAll(Collection<String> keys) {
+                Map<String, String> fetched = new HashMap<>();
+                for (String key : keys) {
+                    fetched.put(key, apply(key));
+                }
+                return fetched;
+            }
+        };
+        CachingLayer layer = new CachingLayer(changing, 10);
+        layerRef.set(layer);
+        assertEquals("1", layer.apply("a.b"));
+        assertEquals("stale value must not be cached", "changed", layer.apply("a.b"));
+        assertEquals(Utils.map("a.c", "2"), layer.applyAll(Collections.singletonList("a.c")));
+        assertEquals("stale value must not be cached", Utils.map("a.c", "changed"), layer.applyAll(Collections.singletonList("a.c")));
+    }
+}
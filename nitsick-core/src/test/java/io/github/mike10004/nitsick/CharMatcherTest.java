@@ -0,0 +1,40 @@
+package io.github.mike10004.nitsick;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class CharMatcherTest {
+
+    @Test
+    public void precomputed() {
+        CharMatcher[] matchers = {
+                CharMatcher.none(),
+                CharMatcher.is('x'),
+                CharMatcher.anyOf("xy"),
+                CharMatcher.anyOf("xyz"),
+                CharMatcher.inRange('a', 'z').or(CharMatcher.inRange('A', 'Z')),
+                CharMatcher.inRange('a', 'z').or(CharMatcher.is('é')),
+                CharMatcher.inRange('a', 'z').negate(),
+                CharMatcher.is('~').or(CharMatcher.is('\u007f')),
+                CharMatcher.anyOf("\u0000?\u007f"),
+                CharMatcher.whitespace(),
+                CharMatchers.usEnglishAlphanumericOrUnderscore(),
+                CharMatchers.nonUsEnglishAlphanumericOrUnderscore(),
+        };
+        for (CharMatcher matcher : matchers) {
+            CharMatcher precomputed = matcher.precomputed();
+            for (int c = Character.MIN_VALUE; c <= Character.MAX_VALUE; c++) {
+                if (matcher.matches((char) c) != precomputed.matches((char) c)) {
+                    fail(String.format("%s and %s disagree on U+%04X", matcher, precomputed, c));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void precomputed_fastMatcherIsSame() {
+        CharMatcher matcher = CharMatcher.is('.');
+        assertSame(matcher, matcher.precomputed());
+    }
+}
@@ -0,0 +1,148 @@
+package io.github.mike10004.nitsick;
+
+import org.junit.Test;
+
+import java.time.Duration;
+import java.time.temporal.ChronoUnit;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class DeadlineTest {
+
+    @Test
+    public void remaining() {
+        Deadline deadline = Deadline.after(Duration.ofMinutes(1));
+        long remaining = deadline.remainingNanos();
+        assertTrue(remaining > Duration.ofSeconds(50).toNanos());
+        assertTrue(remaining <= Duration.ofMinutes(1).toNanos());
+        assertFalse(deadline.isExpired());
+        assertTrue(deadline.remaining().compareTo(Duration.ofMinutes(1)) <= 0);
+    }
+
+    @Test
+    public void expires() throws Exception {
+        Deadline deadline = Deadline.after(Duration.ofMillis(10));
+        Thread.sleep(20);
+        assertTrue(deadline.isExpired());
+        assertEquals(0, deadline.remainingNanos());
+        assertEquals(Duration.ZERO, deadline.remaining());
+    }
+
+    @Test
+    public void zeroAndNegative() {
+        assertTrue(Deadline.after(Duration.ZERO).isExpired());
+        assertTrue(Deadline.after(Duration.ofSeconds(-5)).isExpired());
+        assertTrue(Deadline.afterNanos(Long.MIN_VALUE).isExpired());
+    }
+
+    @Test
+    public void huge() {
+        Deadline deadline = Deadline.after(ChronoUnit.FOREVER.getDuration());
+        assertFalse(deadline.isExpired());
+        assertTrue(deadline.remainingNanos() > 0);
+        assertFalse(Deadline.afterNanos(Long.MAX_VALUE).isExpired());
+    }
+
+    @Test
+    public void split() {
+        Deadline deadline = Deadline.after(Duration.ofMinutes(10));
+        Deadline half = deadline.split(0.5);
+        assertTrue(half.remainingNanos() <= Duration.ofMinutes(5).toNanos());
+        assertTrue(half.remainingNanos() > Duration.ofMinutes(4).toNanos());
+        assertSame(half, deadline.min(half));
+        assertTrue(deadline.split(0).isExpired());
+        assertSame(deadline, deadline.split(1));
+        assertTrue(Deadline.after(Duration.ZERO).split(0.5).isExpired());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void split_invalid() {
+        Deadline.after(Duration.ofSeconds(1)).split(1.5);
+    }
+
+    @Test
+    public void min() {
+        Deadline early = Deadline.after(Duration.ofSeconds(1));
+        Deadline late = Deadline.after(Duration.ofHours(1));
+        assertSame(early, early.min(late));
+        assertSame(early, late.min(early));
+        assertSame(early, early.min(early));
+    }
+
+    @Test
+    public void await_immediate() throws Exception {
+        AtomicInteger checks = new AtomicInteger();
+        assertTrue(Deadline.after(Duration.ofSeconds(10)).await(() -> checks.incrementAndGet() > 0));
+        assertEquals(1, checks.get());
+    }
+
+    @Test
+    public void await_expires() throws Exception {
+        long start = System.nanoTime();
+        assertFalse(Deadline.after(Duration.ofMillis(50)).await(() -> false));
+        long elapsed = System.nanoTime() - start;
+        assertTrue(elapsed >= TimeUnit.MILLISECONDS.toNanos(50));
+        assertTrue("elapsed " + elapsed, elapsed < TimeUnit.SECONDS.toNanos(5));
+    }
+
+    @Test
+    public void await_expired() throws Exception {
+        assertFalse(Deadline.after(Duration.ZERO).await(() -> false));
+        assertTrue(Deadline.after(Duration.ZERO).await(() -> true));
+    }
+
+    @Test
+    public void await_becomesTrue() throws Exception {
+        AtomicBoolean flag = new AtomicBoolean();
+        Thread setter = new Thread(() -> {
+            try {
+                Thread.sleep(30);
+            } catch (InterruptedException ignore) {
+            }
+            flag.set(true);
+        });
+        setter.start();
+        assertTrue(Deadline.after(Duration.ofSeconds(30)).await(flag::get));
+        setter.join();
+    }
+
+    @Test
+    public void await_signal() throws Exception {
+        WakeupSignal signal = new WakeupSignal();
+        AtomicBoolean flag = new AtomicBoolean();
+        CountDownLatch parked = new CountDownLatch(1);
+        AtomicInteger checks = new AtomicInteger();
+        Thread setter = new Thread(() -> {
+            try {
+                parked.await();
+                Thread.sleep(50);
+            } catch (InterruptedException ignore) {
+            }
+            flag.set(true);
+            signal.signal();
+        });
+        setter.start();
+        assertTrue(Deadline.after(Duration.ofSeconds(30)).await(() -> {
+            if (checks.incrementAndGet() > Deadline.SPIN_ITERATIONS + Deadline.YIELD_ITERATIONS) {
+                parked.countDown();
+            }
+            return flag.get();
+        }, signal));
+        setter.join();
+    }
+
+    @Test
+    public void await_interrupted() throws Exception {
+        Thread.currentThread().interrupt();
+        try {
+            Deadline.after(Duration.ofSeconds(30)).await(() -> false);
+            fail("expected exception");
+        } catch (InterruptedException expected) {
+        }
+        assertFalse(Thread.currentThread().isInterrupted());
+    }
+}
@@ -0,0 +1,144 @@
+package io.github.mike10004.nitsick;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import static org.junit.Assert.*;
+
+public class DirectoryLayerTest {
+
+    private static final long WATCH_TIMEOUT_MS = 30000;
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private static void write(Path file, String content) throws IOException {
+        Files.write(file, content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void apply() throws Exception {
+        File dir = temporaryFolder.newFolder();
+        write(dir.toPath().resolve("a.b"), "1\n");
+        write(dir.toPath().resolve("a.c"), "two\r\n");
+        write(dir.toPath().resolve("a.d"), "multi\nline\n\n");
+        write(dir.toPath().resolve("a.e"), "");
+        write(dir.toPath().resolve(".hidden"), "x");
+        assertTrue(new File(dir, "subdir").mkdir());
+        try (DirectoryLayer layer = new DirectoryLayer(dir.toPath())) {
+            assertEquals("1", layer.apply("a.b"));
+            assertEquals("two", layer.apply("a.c"));
+            assertEquals("multi\nline\n", layer.apply("a.d"));
+            assertEquals("", layer.apply("a.e"));
+            assertNull(layer.apply(".hidden"));
+            assertNull(layer.apply("subdir"));
+            assertNull(layer.apply("a.f"));
+        }
+    }
+
+    @Test
+    public void capture() throws Exception {
+        File dir = temporaryFolder.newFolder();
+        write(dir.toPath().resolve("a.b"), "1");
+        write(dir.toPath().resolve("a.c"), "2");
+        write(dir.toPath().resolve("b.c"), "3");
+        try (DirectoryLayer layer = new DirectoryLayer(dir.toPath())) {
+            Map<String, String> expected = new HashMap<>();
+            expected.put("a.b", "1");
+            expected.put("a.c", "2");
+            assertEquals(expected, layer.capture("a."));
+        }
+    }
+
+    @Test
+    public void watch() throws Exception {
+        Path dir = temporaryFolder.newFolder().toPath();
+        write(dir.resolve("a.b"), "1");
+        write(dir.resolve("a.c"), "2");
+        try (DirectoryLayer layer = new DirectoryLayer(dir)) {
+            assertEquals("1", layer.apply("a.b"));
+            write(dir.resolve("a.b"), "changed");
+            awaitValue("changed", () -> layer.apply("a.b"));
+            write(dir.resolve("a.d"), "created");
+            awaitValue("created", () -> layer.apply("a.d"));
+            Files.delete(dir.resolve("a.c"));
+            awaitValue(null, () -> layer.apply("a.c"));
+        }
+    }
+
+    @Test
+    public void subscribe() throws Exception {
+        Path dir = temporaryFolder.newFolder().toPath();
+        write(dir.resolve("a.b"), "1");
+        try (DirectoryLayer layer = new DirectoryLayer(dir)) {
+            BlockingQueue<Set<String>> notifications = new LinkedBlockingQueue<>();
+            try (Subscription ignore = layer.subscribe(notifications::add)) {
+                write(dir.resolve("a.b"), "2");
+                Set<String> changed = notifications.poll(WATCH_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+                assertEquals(Collections.singleton("a.b"), changed);
+                assertEquals("2", layer.apply("a.b"));
+            }
+        }
+    }
+
+    @Test
+    public void modifiedDuringRead() throws Exception {
+        Path dir = temporaryFolder.newFolder().toPath();
+        write(dir.resolve("a.b"), "1");
+        CountDownLatch readStarted = new CountDownLatch(1);
+        CountDownLatch modified = new CountDownLatch(1);
+        try (DirectoryLayer layer = new DirectoryLayer(dir) {
+            @Override
+            String read(String key) {
+                String value = super.read(key);
+                if (readStarted.getCount() > 0) {
+                    readStarted.countDown();
+                    try {
+                        assertTrue(modified.await(WATCH_TIMEOUT_MS, TimeUnit.MILLISECONDS));
+                    } catch (InterruptedException e) {
+                        throw new IllegalStateException(e);
+                    }
+                }
+                return value;
+            }
+        }) {
+            try (Subscription ignore = layer.subscribe(keys -> modified.countDown())) {
+                CompletableFuture<String> staleRead = CompletableFuture.supplyAsync(() -> layer.apply("a.b"));
+                assertTrue(readStarted.await(WATCH_TIMEOUT_MS, TimeUnit.MILLISECONDS));
+                write(dir.resolve("a.b"), "2");
+                assertEquals("1", staleRead.get(WATCH_TIMEOUT_MS, TimeUnit.MILLISECONDS));
+                assertEquals("content read before the modification must not be retained", "2", layer.apply("a.b"));
+            }
+        }
+    }
+
+    private static void awaitValue(String expected, Supplier<String> actual) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + WATCH_TIMEOUT_MS;
+        while (System.currentTimeMillis() < deadline) {
+            if (Objects.equals(expected, actual.get())) {
+                return;
+            }
+            Thread.sleep(20);
+        }
+        assertEquals(expected, actual.get());
+    }
+
+}
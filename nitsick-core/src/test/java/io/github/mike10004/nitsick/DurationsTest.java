@@ -5,6 +5,7 @@ import org.apache.commons.text.StringEscapeUtils;
 import org.junit.Test;
 
 import java.time.Duration;
+import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
@@ -15,6 +16,7 @@ import java.util.Objects;
 import java.util.concurrent.TimeUnit;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
 
 public class DurationsTest {
 
@@ -33,7 +35,35 @@ public class DurationsTest {
                 TestCase.seconds("456 sec", 456),
                 TestCase.seconds("456 s", 456),
                 TestCase.seconds("456 seconds", 456),
+                TestCase.millis("500", 500),
+                TestCase.millis(" 1500 ", 1500),
+                TestCase.millis("-500", -500),
+                TestCase.millis("+0", 0),
+                TestCase.millis(String.valueOf(Long.MAX_VALUE), Long.MAX_VALUE),
+                new TestCase("1m30s", Duration.ofSeconds(90)),
+                new TestCase("1m 30s", Duration.ofSeconds(90)),
+                new TestCase("-1m30s", Duration.ofSeconds(-90)),
+                new TestCase("1.5s", Duration.ofMillis(1500)),
+                new TestCase(".5s", Duration.ofMillis(500)),
+                new TestCase("1.s", Duration.ofSeconds(1)),
+                new TestCase("250us", Duration.ofNanos(250_000)),
+                new TestCase("1.5us", Duration.ofNanos(1500)),
+                new TestCase("0.0000000015s", Duration.ofNanos(1)),
+                new TestCase("42ns", Duration.ofNanos(42)),
+                new TestCase("1.5", Duration.ofNanos(1_500_000)),
+                new TestCase("2h", Duration.ofHours(2)),
+                new TestCase("1d", Duration.ofDays(1)),
+                new TestCase("1.25d", Duration.ofHours(30)),
+                new TestCase("1d2h3m4s5ms6us7ns", Duration.ofDays(1).plusHours(2).plusMinutes(3).plusSeconds(4).plusMillis(5).plusNanos(6007)),
+                new TestCase("999ms1ms", Duration.ofSeconds(1)),
+                TestCase.millis("123MS", 123),
+                TestCase.seconds("-5s", -5),
+                TestCase.seconds("+5s", 5),
+                new TestCase("5 hours", Duration.ofHours(5)),
+                new TestCase("2Days", Duration.ofDays(2)),
+                new TestCase("1500000nanoseconds", Duration.ofNanos(1_500_000)),
                 TestCase.formal(Duration.ofMillis(789)),
+                TestCase.formal(Duration.ofMillis(-789)),
                 TestCase.formal(Duration.ofSeconds(30)),
                 TestCase.formal(Duration.ofSeconds(300)),
                 TestCase.formal(Duration.ofHours(36)),
@@ -48,6 +78,40 @@ public class DurationsTest {
         }
     }
 
+    @Test
+    public void parseDuration_malformed() {
+        Object[][] testCases = {
+                {"ms", 0},
+                {" ", 1},
+                {"-", 1},
+                {"5s3", 3},
+                {"1m30", 4},
+                {"5.5.5s", 3},
+                {"5 s x", 4},
+                {"5s,", 2},
+                {"1 500", 2},
+                {"5 fortnights", 2},
+                {"99999999999999999999ms", 0},
+                {"9223372036854775807d", 0},
+        };
+        for (Object[] testCase : testCases) {
+            String input = (String) testCase[0];
+            int expectedOffset = (Integer) testCase[1];
+            try {
+                Durations.parseDuration(input);
+                fail("expected exception for " + input);
+            } catch (DurationParseException e) {
+                assertEquals(e.getMessage(), expectedOffset, e.getErrorOffset());
+                assertEquals(input, e.getParsedString());
+            }
+        }
+    }
+
+    @Test(expected = DateTimeParseException.class)
+    public void parseDuration_malformedStandard() {
+        Durations.parseDuration("PT5");
+    }
+
     private static class TestCase {
         public final String input;
         public final Duration expected;
@@ -89,6 +153,11 @@ public class DurationsTest {
         testCases.add(Triple.of("m", null, TimeUnit.MINUTES));
         testCases.add(Triple.of("min", null, TimeUnit.MINUTES));
         testCases.add(Triple.of("minutes", null, TimeUnit.MINUTES));
+        testCases.add(Triple.of("HOURS", null, TimeUnit.HOURS));
+        testCases.add(Triple.of("Days", null, TimeUnit.DAYS));
+        testCases.add(Triple.of("us", null, TimeUnit.MICROSECONDS));
+        testCases.add(Triple.of("h", null, TimeUnit.HOURS));
+        testCases.add(Triple.of("d", null, TimeUnit.DAYS));
         List<Object> failures = new ArrayList<>();
         for (Triple<String, TimeUnit, TimeUnit> testCase : testCases) {
             String token = testCase.getLeft();
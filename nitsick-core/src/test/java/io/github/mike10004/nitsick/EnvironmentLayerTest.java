@@ -6,7 +6,11 @@ import org.junit.Test;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -40,6 +44,77 @@ public class EnvironmentLayerTest {
         assertEquals("list of failures", Collections.emptyList(), failures);
     }
 
+    @Test
+    public void toCanonicalKey() {
+        assertEquals("foo.bar", EnvironmentLayer.toCanonicalKey("FOO_BAR"));
+        assertEquals("foo2", EnvironmentLayer.toCanonicalKey("FOO2"));
+        assertNull(EnvironmentLayer.toCanonicalKey("foo_bar"));
+        assertNull(EnvironmentLayer.toCanonicalKey("_FOO"));
+        assertNull(EnvironmentLayer.toCanonicalKey("FOO_"));
+        assertNull(EnvironmentLayer.toCanonicalKey("FOO-BAR"));
+        assertNull(EnvironmentLayer.toCanonicalKey(""));
+    }
+
+    @Test
+    public void capture() {
+        EnvironmentLayer layer = new EnvironmentLayer(Utils.map("FOO_BAR", "1", "FOO_BAZ_GAW", "2", "FOOD", "3", "foo_x", "4", "OTHER", "5"));
+        Map<String, String> expected = Utils.map("foo.bar", "1", "foo.baz.gaw", "2");
+        assertEquals(expected, layer.capture("foo."));
+        assertEquals(4, layer.capture("").size());
+        assertNull(new EnvironmentLayer(System::getenv).capture("foo."));
+    }
+
+    @Test
+    public void apply_indexed() {
+        EnvironmentLayer layer = new EnvironmentLayer(Utils.map("FOO_BAR", "1", "FOO_BAZ", "2", "foo_gaw", "3"));
+        assertEquals("1", layer.apply("foo.bar"));
+        assertEquals("1", layer.apply("foo_bar"));
+        assertEquals("1", layer.apply("Foo.Bar."));
+        assertEquals("2", layer.bind("foo.baz").get());
+        assertEquals("2", layer.bind("Foo.Baz").get());
+        assertNull(layer.apply("foo.gaw"));
+        assertNull(layer.apply("foo.absent"));
+    }
+
+    @Test
+    public void apply_indexMiss() {
+        AtomicInteger gets = new AtomicInteger();
+        Map<String, String> environment = new HashMap<String, String>(Utils.map("FOO_BAR", "1")) {
+            @Override
+            public String get(Object key) {
+                gets.incrementAndGet();
+                return super.get(key);
+            }
+        };
+        EnvironmentLayer layer = new EnvironmentLayer(environment);
+        assertNull(layer.apply("foo.absent"));
+        assertNull(layer.bind("foo.absent").get());
+        assertEquals("1", layer.apply("foo.bar"));
+        assertEquals("canonical keys are resolved by the index alone", 0, gets.get());
+    }
+
+    @Test
+    public void apply_caseInsensitiveGetter() {
+        Map<String, String> environment = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        environment.put("Path", "/bin");
+        environment.put("FOO_BAR", "1");
+        EnvironmentLayer layer = new EnvironmentLayer(environment::get, Utils.map("Path", "/bin", "FOO_BAR", "1"));
+        assertEquals("/bin", layer.apply("path"));
+        assertEquals("/bin", layer.bind("path").get());
+        assertEquals("1", layer.apply("foo.bar"));
+        assertNull(layer.apply("foo.baz"));
+    }
+
+    @Test
+    public void isCanonicalKey() {
+        assertTrue(EnvironmentLayer.isCanonicalKey("foo.bar2"));
+        assertFalse(EnvironmentLayer.isCanonicalKey("foo.Bar"));
+        assertFalse(EnvironmentLayer.isCanonicalKey("foo_bar"));
+        assertFalse(EnvironmentLayer.isCanonicalKey(".foo"));
+        assertFalse(EnvironmentLayer.isCanonicalKey("foo."));
+        assertFalse(EnvironmentLayer.isCanonicalKey(""));
+    }
+
     private static String describe(List<String> things) {
         return things.stream()
                 .map(s -> "\"" + StringEscapeUtils.escapeJava(s) + "\"")
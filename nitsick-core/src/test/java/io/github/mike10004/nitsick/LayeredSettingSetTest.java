@@ -2,6 +2,24 @@ package io.github.mike10004.nitsick;
 
 import org.junit.Test;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
 import static org.junit.Assert.*;
 
 public class LayeredSettingSetTest extends SettingSetTestBase {
@@ -12,6 +30,16 @@ public class LayeredSettingSetTest extends SettingSetTestBase {
         assertEquals("a.b.c", actual);
     }
 
+    @Test
+    public void toKey_normalization() {
+        LayeredSettingSet s = LayeredSettingSet.of(".a.", SyspropsLayer.getInstance());
+        assertEquals("a.b", s.toKey(".b."));
+        assertEquals("a", s.toKey(" "));
+        assertEquals("a. b", s.toKey(" b"));
+        assertEquals("a.b.c", s.toKey(Arrays.asList("b", "", "c.")));
+        assertEquals("b", LayeredSettingSet.of("", SyspropsLayer.getInstance()).toKey("b"));
+    }
+
     @Test
     public void get_fallbackToEnvironment() {
         SettingLayer fakeEnv = new KeyTransformingLayer(Utils.map("A_D_G", "shibboleth")::get, EnvironmentLayer::transformToEnvironmentVariables);
@@ -20,4 +48,202 @@ public class LayeredSettingSetTest extends SettingSetTestBase {
         assertEquals("shibboleth", actual);
     }
 
-}
\ No newline at end of file
+    @Test
+    public void compile() {
+        SettingLayer fakeEnv = new KeyTransformingLayer(Utils.map("A_D_G", "shibboleth")::get, EnvironmentLayer::transformToEnvironmentVariables);
+        SettingSet s = LayeredSettingSet.of("a", sampleLayer(), fakeEnv);
+        assertEquals("hello", s.compile("d.d", "d.e").get());
+        assertEquals("shibboleth", s.compile("d.d", "d.g").get());
+        assertNull(s.compile("j", "k").get());
+        CompiledLookup lookup = s.compile("b");
+        assertEquals("10", lookup.get());
+        assertEquals("10", lookup.get());
+        assertEquals(Integer.valueOf(10), lookup.getTyped(Integer::valueOf, null));
+        assertEquals(Integer.valueOf(-1), s.compile("empty").getTyped(Integer::valueOf, -1));
+    }
+
+    @Test
+    public void compile_precedence() {
+        SettingSet s = LayeredSettingSet.of("a", Utils.layer("a.y", "top"), Utils.layer("a.x", "bottom", "a.y", "bottom"));
+        assertEquals("top", s.compile("x", "y").get());
+        assertEquals("top", s.compile("y", "x").get());
+        assertEquals(s.get(Stream.of("x", "y")), s.compile("x", "y").get());
+        assertEquals("bottom", s.compile("x").get());
+    }
+
+    @Test
+    public void getAll() {
+        List<Collection<String>> batches = new ArrayList<>();
+        SettingLayer top = new ForwardingLayer(Utils.map("a.x", "1")::get) {
+            @Override
+            public Map<String, String> applyAll(Collection<String> keys) {
+                batches.add(new ArrayList<>(keys));
+                return super.applyAll(keys);
+            }
+        };
+        SettingSet s = LayeredSettingSet.of("a", top, Utils.layer("a.x", "shadowed", "a.y", "2"));
+        Map<String, String> expected = new LinkedHashMap<>();
+        expected.put("x", "1");
+        expected.put("y", "2");
+        expected.put(".x", "1");
+        Map<String, String> actual = s.getAll(Arrays.asList("x", "y", "z", ".x"));
+        assertEquals(expected, actual);
+        assertEquals(new ArrayList<>(expected.keySet()), new ArrayList<>(actual.keySet()));
+        assertEquals(Arrays.asList(Arrays.asList("a.x", "a.y", "a.z")), batches);
+    }
+
+    @Test
+    public void keys() {
+        SettingLayer enumerable = new MutableLayer(Utils.map("a.timeout.short", "1", "a.timeout.long", "2", "a.port", "3", "b.timeout.x", "4", "a", "5"));
+        SettingLayer env = new EnvironmentLayer(Utils.map("A_TIMEOUT_MEDIUM", "6", "A_TIMEOUT_SHORT", "7"));
+        SettingSet s = LayeredSettingSet.of("a", enumerable, Utils.layer("a.timeout.hidden", "8"), env);
+        assertEquals(Arrays.asList("timeout.long", "timeout.medium", "timeout.short"), new ArrayList<>(s.keys("timeout.")));
+        assertEquals(Arrays.asList("port", "timeout.long", "timeout.medium", "timeout.short"), new ArrayList<>(s.keys("")));
+        LayeredSettingSet enumerableOnly = LayeredSettingSet.of("a", enumerable, env);
+        assertEquals(enumerableOnly.keys("timeout"), enumerableOnly.snapshot().keys("timeout"));
+        assertEquals(enumerableOnly.keys(""), enumerableOnly.snapshot().keys(""));
+    }
+
+    @Test
+    public void getAsync() throws Exception {
+        Map<String, CompletableFuture<String>> requests = new ConcurrentHashMap<>();
+        AsyncSettingLayer slow = key -> requests.computeIfAbsent(key, k -> new CompletableFuture<>());
+        AtomicInteger bottomRequests = new AtomicInteger();
+        SettingLayer bottom = new ForwardingLayer(key -> {
+            bottomRequests.incrementAndGet();
+            return Utils.map("a.x", "bottom", "a.y", "2").get(key);
+        });
+        SettingSet s = LayeredSettingSet.of("a", Utils.layer("a.z", "top"), slow, bottom);
+        assertEquals("top", s.getAsync("z").get());
+        assertTrue(requests.isEmpty());
+        CompletableFuture<String> x = s.getAsync("x");
+        CompletableFuture<String> y = s.getAsync(new String[]{"w", "y"});
+        assertFalse(x.isDone());
+        assertFalse(y.isDone());
+        requests.get("a.x").complete("slow");
+        assertEquals("slow", x.get());
+        assertEquals(0, bottomRequests.get());
+        requests.get("a.w").complete(null);
+        assertFalse(y.isDone());
+        requests.get("a.y").complete(null);
+        assertEquals("2", y.get());
+        assertEquals(2, bottomRequests.get());
+    }
+
+    @Test
+    public void getAsync_failure() throws Exception {
+        AsyncSettingLayer failing = key -> {
+            CompletableFuture<String> future = new CompletableFuture<>();
+            future.completeExceptionally(new IllegalStateException("unavailable"));
+            return future;
+        };
+        SettingSet s = LayeredSettingSet.of("a", failing, Utils.layer("a.x", "1"));
+        try {
+            s.getAsync("x").get();
+            fail("expected exception");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof IllegalStateException);
+        }
+    }
+
+    @Test
+    public void watch() throws Exception {
+        MutableLayer top = new MutableLayer();
+        MutableLayer bottom = new MutableLayer(Utils.map("a.x", "1"));
+        SettingSet s = LayeredSettingSet.of("a", top, bottom);
+        BlockingQueue<String> values = new LinkedBlockingQueue<>();
+        SettingWatch watch = s.watch("x", values::add);
+        assertEquals("1", watch.get());
+        assertEquals(0, watch.generation());
+        bottom.set("a.x", "2");
+        assertEquals("2", values.poll(5, TimeUnit.SECONDS));
+        assertEquals("2", watch.get());
+        assertEquals(1, watch.generation());
+        top.set("a.y", "unrelated");
+        top.set("a.x", "3");
+        bottom.set("a.x", "4");
+        assertEquals("3", values.poll(5, TimeUnit.SECONDS));
+        assertEquals(2, watch.generation());
+        watch.close();
+        top.set("a.x", "5");
+        assertNull(values.poll(4 * LayeredSettingSet.WATCH_DEBOUNCE_NANOS, TimeUnit.NANOSECONDS));
+        assertEquals("3", watch.get());
+    }
+
+    @Test
+    public void watch_changeBeforeSubscribed() throws Exception {
+        MutableLayer layer = new MutableLayer(Utils.map("a.x", "1")) {
+            @Override
+            public Subscription subscribe(Consumer<? super Set<String>> listener) {
+                // changed after the watch could have read its baseline but before it is subscribed
+                set("a.x", "2");
+                return super.subscribe(listener);
+            }
+        };
+        SettingSet s = LayeredSettingSet.of("a", layer);
+        BlockingQueue<String> values = new LinkedBlockingQueue<>();
+        try (SettingWatch watch = s.watch("x", values::add)) {
+            assertEquals("2", watch.get());
+            layer.set("a.x", "3");
+            assertEquals("3", values.poll(5, TimeUnit.SECONDS));
+        }
+    }
+
+    @Test
+    public void watch_coalesce() throws Exception {
+        MutableLayer layer = new MutableLayer();
+        SettingSet s = LayeredSettingSet.of("a", layer);
+        List<String> values = new CopyOnWriteArrayList<>();
+        try (SettingWatch watch = s.watch("x", values::add)) {
+            for (int i = 0; i < 10; i++) {
+                layer.set("a.x", String.valueOf(i));
+            }
+            layer.set("a.x", null);
+            Thread.sleep(TimeUnit.NANOSECONDS.toMillis(LayeredSettingSet.WATCH_DEBOUNCE_NANOS * 4));
+            assertEquals("no changes expected to be published because value returned to null", Arrays.asList(), values);
+            assertEquals(0, watch.generation());
+        }
+    }
+
+    @Test
+    public void watch_systemProperties() throws Exception {
+        String key = "nitsick.test.watch" + System.nanoTime();
+        SettingSet s = LayeredSettingSet.of("", SettingLayer.systemPropertiesLayer());
+        BlockingQueue<String> values = new LinkedBlockingQueue<>();
+        try (SettingWatch ignore = s.watch(key, values::add)) {
+            System.setProperty(key, "on");
+            SettingLayer.refreshSystemProperties();
+            assertEquals("on", values.poll(5, TimeUnit.SECONDS));
+        } finally {
+            System.clearProperty(key);
+        }
+    }
+
+    @Test
+    public void systemProperties_resubscribe() throws Exception {
+        String key = "nitsick.test.resubscribe" + System.nanoTime();
+        SettingLayer layer = SettingLayer.systemPropertiesLayer();
+        BlockingQueue<Set<String>> changes = new LinkedBlockingQueue<>();
+        try {
+            layer.subscribe(changes::add).close();
+            System.setProperty(key, "1");
+            SettingLayer.refreshSystemProperties();
+            try (Subscription ignore = layer.subscribe(changes::add)) {
+                SettingLayer.refreshSystemProperties();
+                assertTrue("property set before subscribing is part of the baseline", changes.isEmpty());
+                System.setProperty(key, "2");
+                SettingLayer.refreshSystemProperties();
+                assertTrue(changes.poll(5, TimeUnit.SECONDS).contains(key));
+            }
+        } finally {
+            System.clearProperty(key);
+        }
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void watch_unsupported() {
+        SettingSet s = aliases -> null;
+        s.watch("x", value -> {});
+    }
+
+}
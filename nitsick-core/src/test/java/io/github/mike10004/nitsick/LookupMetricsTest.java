@@ -0,0 +1,77 @@
+package io.github.mike10004.nitsick;
+
+import org.junit.Test;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.openmbean.TabularData;
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.*;
+
+public class LookupMetricsTest {
+
+    private static final SettingLayer TOP = new ForwardingLayer(Utils.map("a.x", "1")::get) {
+        @Override
+        public String toString() {
+            return "top";
+        }
+    };
+
+    private static final SettingLayer BOTTOM = new ForwardingLayer(Utils.map("a.y", "2")::get) {
+        @Override
+        public String toString() {
+            return "bottom";
+        }
+    };
+
+    @Test
+    public void record() {
+        LookupMetrics metrics = new LookupMetrics();
+        SettingSet s = LayeredSettingSet.of("a", TOP, BOTTOM).withMetrics(metrics);
+        assertEquals("1", s.get("x"));
+        assertEquals("2", s.get("y"));
+        assertNull(s.get("z"));
+        assertEquals("1", s.get(new String[]{"y", "x"}));
+        assertEquals("1", s.get(Stream.of("x")));
+        assertEquals("2", s.compile("z", "y").get());
+        assertEquals(Long.valueOf(2), metrics.getIdentifierHitCounts().get("x"));
+        assertEquals(Long.valueOf(2), metrics.getIdentifierHitCounts().get("y"));
+        assertEquals(Long.valueOf(1), metrics.getIdentifierMissCounts().get("z"));
+        assertEquals(Long.valueOf(1), metrics.getIdentifierHitCounts().get("z"));
+        assertEquals(Long.valueOf(3), metrics.getLayerHitCounts().get("top"));
+        assertEquals(Long.valueOf(3), metrics.getLayerMissCounts().get("top"));
+        assertEquals(Long.valueOf(2), metrics.getLayerHitCounts().get("bottom"));
+        assertEquals(Long.valueOf(1), metrics.getLayerMissCounts().get("bottom"));
+        assertEquals(6, Arrays.stream(metrics.getLayerLatencyHistograms().get("top")).sum());
+        assertEquals(6, metrics.getIdentifierLatencyHistograms().values().stream().flatMapToLong(Arrays::stream).sum());
+        metrics.reset();
+        assertEquals(Long.valueOf(0), metrics.getLayerHitCounts().get("top"));
+    }
+
+    @Test
+    public void bucket() {
+        assertEquals(0, LookupMetrics.bucket(0));
+        assertEquals(1, LookupMetrics.bucket(1));
+        assertEquals(2, LookupMetrics.bucket(2));
+        assertEquals(2, LookupMetrics.bucket(3));
+        assertEquals(11, LookupMetrics.bucket(1024));
+        assertEquals(LookupMetrics.HISTOGRAM_BUCKETS - 1, LookupMetrics.bucket(Long.MAX_VALUE));
+    }
+
+    @Test
+    public void register() throws Exception {
+        LookupMetrics metrics = new LookupMetrics();
+        LayeredSettingSet.of("a", TOP).withMetrics(metrics).get("x");
+        ObjectName name = metrics.register("LookupMetricsTest");
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        try {
+            TabularData hits = (TabularData) server.getAttribute(name, "LayerHitCounts");
+            assertEquals(1, hits.size());
+        } finally {
+            server.unregisterMBean(name);
+        }
+    }
+}
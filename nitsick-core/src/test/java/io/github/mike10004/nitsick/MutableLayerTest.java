@@ -0,0 +1,53 @@
+package io.github.mike10004.nitsick;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+public class MutableLayerTest {
+
+    @Test
+    public void set() {
+        MutableLayer layer = new MutableLayer(Utils.map("a.b", "1"));
+        assertEquals("1", layer.apply("a.b"));
+        layer.set("a.b", "2");
+        assertEquals("2", layer.apply("a.b"));
+        layer.set("a.b", null);
+        assertNull(layer.apply("a.b"));
+    }
+
+    @Test
+    public void subscribe() {
+        MutableLayer layer = new MutableLayer();
+        List<Set<String>> notifications = new ArrayList<>();
+        Subscription subscription = layer.subscribe(notifications::add);
+        layer.set("a.b", "1");
+        layer.set("a.b", "1");
+        Map<String, String> batch = new HashMap<>();
+        batch.put("a.b", null);
+        batch.put("a.c", "2");
+        batch.put("a.d", null);
+        layer.setAll(batch);
+        subscription.close();
+        layer.set("a.e", "3");
+        List<Set<String>> expected = new ArrayList<>();
+        expected.add(Collections.singleton("a.b"));
+        expected.add(new HashSet<>(Arrays.asList("a.b", "a.c")));
+        assertEquals(expected, notifications);
+    }
+
+    @Test
+    public void capture() {
+        MutableLayer layer = new MutableLayer(Utils.map("a.b", "1", "c.d", "2"));
+        assertEquals(Utils.map("a.b", "1"), layer.capture("a."));
+    }
+}
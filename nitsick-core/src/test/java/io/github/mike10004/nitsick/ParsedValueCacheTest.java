@@ -0,0 +1,120 @@
+package io.github.mike10004.nitsick;
+
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.*;
+
+public class ParsedValueCacheTest {
+
+    @Test
+    public void parse() {
+        AtomicInteger invocations = new AtomicInteger();
+        Function<String, Integer> parser = s -> {
+            invocations.incrementAndGet();
+            return Integer.valueOf(s);
+        };
+        ParsedValueCache cache = new ParsedValueCache(10);
+        assertEquals(Integer.valueOf(1), cache.parse("1", parser));
+        assertEquals(Integer.valueOf(1), cache.parse("1", parser));
+        assertEquals(Integer.valueOf(2), cache.parse("2", parser));
+        assertEquals(2, invocations.get());
+        assertEquals(1, cache.hitCount());
+        assertEquals(2, cache.missCount());
+        Function<String, String> other = s -> s + s;
+        assertEquals("11", cache.parse("1", other));
+        cache.invalidateAll();
+        assertEquals(Integer.valueOf(1), cache.parse("1", parser));
+        assertEquals(3, invocations.get());
+    }
+
+    @Test
+    public void parse_bounded() {
+        ParsedValueCache cache = new ParsedValueCache(2);
+        for (int i = 0; i < 5; i++) {
+            cache.parse(String.valueOf(i), Integer::valueOf);
+        }
+        assertEquals(2, cache.size());
+    }
+
+    @Test
+    public void parse_evictsUnusedEntry() {
+        Function<String, String> parser = String::trim;
+        ParsedValueCache cache = new ParsedValueCache(2);
+        cache.parse("a", parser);
+        cache.parse("b", parser);
+        cache.parse("c", parser);
+        assertEquals(2, cache.size());
+        String kept = Stream.of("a", "b", "c").filter(s -> cache.isCached(s, parser)).findFirst().orElseThrow(AssertionError::new);
+        cache.parse(kept, parser);
+        cache.parse("d", parser);
+        assertEquals(2, cache.size());
+        assertTrue("entry used since the last eviction is kept", cache.isCached(kept, parser));
+        assertTrue(cache.isCached("d", parser));
+    }
+
+    @Test
+    public void parse_concurrent() throws Exception {
+        ParsedValueCache cache = new ParsedValueCache(8);
+        Function<String, Integer> parser = Integer::valueOf;
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < 4; t++) {
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < 10_000; i++) {
+                        String value = String.valueOf(i % 16);
+                        assertEquals(Integer.valueOf(value), cache.parse(value, parser));
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertTrue(cache.size() <= 8);
+        assertEquals(40_000, cache.hitCount() + cache.missCount());
+    }
+
+    @Test
+    public void layeredSettingSet() {
+        ParsedValueCache cache = new ParsedValueCache(10);
+        SettingSet s = LayeredSettingSet.of("a", Utils.layer("a.timeout.short", "200ms", "a.n", "3", "a.empty", ""))
+                .withParsedValueCache(cache);
+        Duration first = s.timeouts().getShort();
+        Duration second = s.timeouts().getShort();
+        assertEquals(Duration.ofMillis(200), first);
+        assertSame(first, second);
+        assertEquals(3, s.get("n", 0));
+        assertEquals(3, s.get("n", 0));
+        assertEquals(7, s.get("empty", 7));
+        assertEquals(2, cache.missCount());
+        assertEquals(2, cache.hitCount());
+    }
+
+    @Test
+    public void layeredSettingSet_sharedParsers() {
+        ParsedValueCache cache = new ParsedValueCache(10);
+        SettingSet s = LayeredSettingSet.of("a", Utils.layer("a.n", "3", "a.b", "yes"))
+                .withParsedValueCache(cache);
+        Setting<Integer> n = Setting.ofInt("n", 0);
+        Setting<Boolean> b = Setting.ofBoolean("b", false);
+        assertEquals(3, s.get("n", 0));
+        assertEquals(Integer.valueOf(3), s.getTyped("n", n.parser(), n.defaultValue()));
+        assertTrue(s.get("b", false));
+        assertEquals(Boolean.TRUE, s.getTyped("b", b.parser(), b.defaultValue()));
+        assertEquals("one entry per setting", 2, cache.size());
+        assertEquals(2, cache.hitCount());
+    }
+}
@@ -0,0 +1,107 @@
+package io.github.mike10004.nitsick;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+
+import static org.junit.Assert.*;
+
+public class PropertiesFileLayerTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private static final String TEXT = "# comment\n" +
+            "! another comment\n" +
+            "\n" +
+            "   \t\n" +
+            "a.b=1\n" +
+            "a.c : 2\n" +
+            "a.d 3\n" +
+            "  a.e   =   spaced out  \n" +
+            "a.f=\n" +
+            "a.g\n" +
+            "a.h = = equals\n" +
+            "a\\ key\\=with\\:escapes = value\n" +
+            "a.unicode=caf\\u00e9 \\u2603\n" +
+            "a.escapes=tab\\tnewline\\nx\\y\n" +
+            "a.continued = first \\\n" +
+            "      second \\\r\n" +
+            "   third\r\n" +
+            "a.cr=carriage\r" +
+            "a.b=overridden\n" +
+            "a.trailing=backslash\\\\\n" +
+            "a.latin1=\u00e9\n" +
+            "a.last=no newline";
+
+    private File writeSample() throws IOException {
+        File file = temporaryFolder.newFile("sample.properties");
+        Files.write(file.toPath(), TEXT.getBytes(StandardCharsets.ISO_8859_1));
+        return file;
+    }
+
+    private static Map<String, String> load(File file) throws IOException {
+        Properties p = new Properties();
+        try (InputStream in = new FileInputStream(file)) {
+            p.load(in);
+        }
+        Map<String, String> map = new HashMap<>();
+        p.stringPropertyNames().forEach(name -> map.put(name, p.getProperty(name)));
+        return map;
+    }
+
+    @Test
+    public void apply() throws Exception {
+        File file = writeSample();
+        Map<String, String> expected = load(file);
+        PropertiesFileLayer layer = new PropertiesFileLayer(file.toPath());
+        for (String key : expected.keySet()) {
+            assertEquals(key, expected.get(key), layer.apply(key));
+        }
+        assertEquals("overridden", layer.apply("a.b"));
+        assertEquals("first second third", layer.apply("a.continued"));
+        assertNull(layer.apply("a.absent"));
+        assertNull(layer.apply("a"));
+    }
+
+    @Test
+    public void capture() throws Exception {
+        File file = writeSample();
+        Map<String, String> expected = load(file);
+        expected.keySet().removeIf(key -> !key.startsWith("a."));
+        PropertiesFileLayer layer = new PropertiesFileLayer(file.toPath());
+        assertEquals(expected, layer.capture("a."));
+    }
+
+    @Test
+    public void empty() throws Exception {
+        File file = temporaryFolder.newFile("empty.properties");
+        PropertiesFileLayer layer = new PropertiesFileLayer(file.toPath());
+        assertNull(layer.apply("a"));
+        assertEquals(0, layer.capture("").size());
+    }
+
+    @Test
+    public void manyKeys() throws Exception {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 1000; i++) {
+            sb.append("k").append(i).append('=').append(i * 2).append('\n');
+        }
+        File file = temporaryFolder.newFile("many.properties");
+        Files.write(file.toPath(), sb.toString().getBytes(StandardCharsets.ISO_8859_1));
+        SettingSet s = LayeredSettingSet.of("", new PropertiesFileLayer(file.toPath()));
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(i * 2, s.get("k" + i, -1));
+        }
+    }
+}
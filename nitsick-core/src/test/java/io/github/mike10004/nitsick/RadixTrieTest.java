@@ -0,0 +1,66 @@
+package io.github.mike10004.nitsick;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+
+import static org.junit.Assert.*;
+
+public class RadixTrieTest {
+
+    @Test
+    public void withPrefix() {
+        RadixTrie trie = new RadixTrie(Arrays.asList("timeout.short", "timeout.long", "timeout", "tim", "port", "timeout.short"));
+        assertEquals(5, trie.size());
+        assertEquals(Arrays.asList("timeout", "timeout.long", "timeout.short"), trie.withPrefix("timeout"));
+        assertEquals(Arrays.asList("timeout.long", "timeout.short"), trie.withPrefix("timeout."));
+        assertEquals(Arrays.asList("tim", "timeout", "timeout.long", "timeout.short"), trie.withPrefix("ti"));
+        assertEquals(Collections.singletonList("timeout.short"), trie.withPrefix("timeout.s"));
+        assertEquals(Collections.emptyList(), trie.withPrefix("timeout.x"));
+        assertEquals(Collections.emptyList(), trie.withPrefix("timeouts"));
+        assertEquals(Arrays.asList("port", "tim", "timeout", "timeout.long", "timeout.short"), trie.withPrefix(""));
+        assertTrue(trie.contains("tim"));
+        assertFalse(trie.contains("time"));
+        assertFalse(trie.contains("timeout.s"));
+    }
+
+    @Test
+    public void withPrefix_random() {
+        Random random = new Random(12345);
+        List<String> keys = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            keys.add(randomKey(random));
+        }
+        RadixTrie trie = new RadixTrie(keys);
+        TreeSet<String> sorted = new TreeSet<>(keys);
+        assertEquals(sorted.size(), trie.size());
+        for (int i = 0; i < 500; i++) {
+            String prefix = randomKey(random);
+            prefix = prefix.substring(0, random.nextInt(prefix.length() + 1));
+            List<String> expected = new ArrayList<>();
+            for (String key : sorted) {
+                if (key.startsWith(prefix)) {
+                    expected.add(key);
+                }
+            }
+            assertEquals(prefix, expected, trie.withPrefix(prefix));
+        }
+        for (String key : keys) {
+            assertTrue(key, trie.contains(key));
+        }
+    }
+
+    private static String randomKey(Random random) {
+        StringBuilder sb = new StringBuilder();
+        int length = 1 + random.nextInt(8);
+        for (int i = 0; i < length; i++) {
+            sb.append("ab.c".charAt(random.nextInt(4)));
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,144 @@
+package io.github.mike10004.nitsick;
+
+import org.junit.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.*;
+
+public class ScopedOverrideLayerTest {
+
+    @Test
+    public void override() {
+        ScopedOverrideLayer layer = new ScopedOverrideLayer();
+        assertNull(layer.apply("a.b"));
+        try (ScopedOverrideLayer.Scope outer = layer.override("a.b", "1")) {
+            assertEquals("1", layer.apply("a.b"));
+            try (ScopedOverrideLayer.Scope inner = layer.override(Utils.map("a.b", "2", "a.c", "3"))) {
+                assertEquals("2", layer.apply("a.b"));
+                assertEquals("3", layer.apply("a.c"));
+                assertEquals(Utils.map("a.b", "2", "a.c", "3"), layer.capture("a."));
+            }
+            assertEquals("1", layer.apply("a.b"));
+            assertNull(layer.apply("a.c"));
+        }
+        assertNull(layer.apply("a.b"));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void close_outOfOrder() {
+        ScopedOverrideLayer layer = new ScopedOverrideLayer();
+        ScopedOverrideLayer.Scope outer = layer.override("a.b", "1");
+        layer.override("a.b", "2");
+        outer.close();
+    }
+
+    @Test
+    public void threadIsolation() throws Exception {
+        ScopedOverrideLayer layer = new ScopedOverrideLayer();
+        CountDownLatch opened = new CountDownLatch(1), checked = new CountDownLatch(1);
+        Thread other = new Thread(() -> {
+            try (ScopedOverrideLayer.Scope ignore = layer.override("a.b", "other")) {
+                opened.countDown();
+                checked.await();
+            } catch (InterruptedException e) {
+                throw new RuntimeException(e);
+            }
+        });
+        other.start();
+        assertTrue(opened.await(5, TimeUnit.SECONDS));
+        assertNull(layer.apply("a.b"));
+        checked.countDown();
+        other.join();
+    }
+
+    @Test
+    public void inheritable() throws Exception {
+        ScopedOverrideLayer layer = new ScopedOverrideLayer(true);
+        AtomicReference<String> seen = new AtomicReference<>();
+        try (ScopedOverrideLayer.Scope ignore = layer.override("a.b", "1")) {
+            Thread child = new Thread(() -> seen.set(layer.apply("a.b")));
+            child.start();
+            child.join();
+        }
+        assertEquals("1", seen.get());
+    }
+
+    @Test
+    public void inheritable_closedByParent() throws Exception {
+        ScopedOverrideLayer layer = new ScopedOverrideLayer(true);
+        CountDownLatch started = new CountDownLatch(1), closed = new CountDownLatch(1);
+        AtomicReference<String> before = new AtomicReference<>(), after = new AtomicReference<>();
+        Thread child;
+        try (ScopedOverrideLayer.Scope ignore = layer.override("a.b", "1")) {
+            child = new Thread(() -> {
+                before.set(layer.apply("a.b"));
+                started.countDown();
+                try {
+                    assertTrue(closed.await(5, TimeUnit.SECONDS));
+                } catch (InterruptedException e) {
+                    throw new RuntimeException(e);
+                }
+                after.set(layer.apply("a.b"));
+            });
+            child.start();
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+        }
+        closed.countDown();
+        child.join();
+        assertEquals("1", before.get());
+        assertNull("closed scope must not remain visible to child thread", after.get());
+    }
+
+    @Test
+    public void inheritable_pooledThread() throws Exception {
+        ScopedOverrideLayer layer = new ScopedOverrideLayer(true);
+        ExecutorService executor;
+        try (ScopedOverrideLayer.Scope outer = layer.override("a.b", "outer")) {
+            try (ScopedOverrideLayer.Scope inner = layer.override("a.b", "inner")) {
+                executor = Executors.newSingleThreadExecutor();
+                assertEquals("inner", executor.submit(() -> layer.apply("a.b")).get());
+            }
+            assertEquals("outer", executor.submit(() -> layer.apply("a.b")).get());
+        }
+        try {
+            assertNull(executor.submit(() -> layer.apply("a.b")).get());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void propagating() throws Exception {
+        ScopedOverrideLayer layer = new ScopedOverrideLayer();
+        ExecutorService executor = layer.propagating(Executors.newSingleThreadExecutor());
+        try {
+            try (ScopedOverrideLayer.Scope ignore = layer.override("a.b", "1")) {
+                assertEquals("1", executor.submit(() -> layer.apply("a.b")).get());
+                assertEquals("1", CompletableFuture.supplyAsync(() -> layer.apply("a.b"), executor).get());
+                assertEquals("1", CompletableFuture.supplyAsync(layer.wrapSupplier(() -> layer.apply("a.b"))).get());
+            }
+            assertNull(executor.submit(() -> layer.apply("a.b")).get());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void withTopLayer() {
+        ScopedOverrideLayer overrides = new ScopedOverrideLayer();
+        LayeredSettingSet settings = LayeredSettingSet.of("a", Utils.layer("a.b", "base")).withTopLayer(overrides);
+        CompiledLookup lookup = settings.compile("b");
+        assertEquals("base", settings.get("b"));
+        try (ScopedOverrideLayer.Scope ignore = overrides.override("a.b", "overridden")) {
+            assertEquals("overridden", settings.get("b"));
+            assertEquals("overridden", lookup.get());
+        }
+        assertEquals("base", lookup.get());
+    }
+}
@@ -0,0 +1,63 @@
+package io.github.mike10004.nitsick;
+
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class SettingRegistryTest {
+
+    @Test
+    public void prefetch() {
+        Set<String> threads = ConcurrentHashMap.newKeySet();
+        MutableLayer layer = new MutableLayer(Utils.map("a.port", "9090", "a.timeout", "5s", "a.fast", "yes"));
+        SettingLayer recording = key -> {
+            threads.add(Thread.currentThread().getName());
+            return layer.apply(key);
+        };
+        SettingRegistry registry = new SettingRegistry(LayeredSettingSet.of("a", recording));
+        AtomicInteger portParses = new AtomicInteger();
+        BoundSetting<Integer> port = registry.declare("port", value -> {
+            portParses.incrementAndGet();
+            return Integer.valueOf(value);
+        }, 8080);
+        BoundSetting<Duration> timeout = registry.declare(new String[]{"wait", "timeout"}, Durations::parseDuration, Duration.ZERO);
+        BoundSetting<Boolean> fast = registry.declare("fast", Truthiness::parseTruthy, false);
+        BoundSetting<String> missing = registry.declare("missing", value -> value, null);
+        assertEquals(4, registry.size());
+        assertFalse(port.isResolved());
+        ForkJoinPool pool = new ForkJoinPool(2);
+        try {
+            registry.prefetch(pool);
+        } finally {
+            pool.shutdown();
+        }
+        assertTrue(port.isResolved());
+        assertTrue(missing.isResolved());
+        assertFalse("lookups expected on pool threads", threads.contains(Thread.currentThread().getName()));
+        assertEquals(1, portParses.get());
+        assertEquals(Integer.valueOf(9090), port.get());
+        assertEquals(Duration.ofSeconds(5), timeout.get());
+        assertEquals(Boolean.TRUE, fast.get());
+        assertNull(missing.get());
+        assertEquals("prefetched value is reused", 1, portParses.get());
+        layer.set("a.port", "9191");
+        assertEquals("values are not resolved again until the next prefetch", Integer.valueOf(9090), port.get());
+        registry.prefetch();
+        assertEquals(Integer.valueOf(9191), port.get());
+        assertEquals(2, portParses.get());
+    }
+
+    @Test
+    public void get_withoutPrefetch() {
+        SettingRegistry registry = new SettingRegistry(LayeredSettingSet.of("a", Utils.layer("a.n", "3")));
+        BoundSetting<Integer> n = registry.declare("n", Integer::valueOf, 0);
+        assertEquals(Integer.valueOf(3), n.get());
+        assertTrue(n.isResolved());
+    }
+}
@@ -4,6 +4,7 @@ import org.junit.Test;
 
 import java.math.BigInteger;
 import java.util.Optional;
+import java.util.function.Function;
 import java.util.stream.Stream;
 
 import static org.junit.Assert.*;
@@ -64,6 +65,18 @@ public class SettingSetTest extends SettingSetTestBase {
         assertEquals(-1, val);
     }
 
+    @Test
+    public void getTyped_parserReturnsNull() {
+        SettingSet s = sample();
+        Function<String, Integer> parser = value -> null;
+        assertEquals(Integer.valueOf(-1), s.getTyped("b", parser, -1));
+        assertEquals(Integer.valueOf(-1), s.getTyped(new String[]{"x", "b"}, parser, -1));
+        assertEquals(Integer.valueOf(-1), s.getTyped(Stream.of("x", "b"), parser, -1));
+        assertEquals(Integer.valueOf(-1), s.compile("b").getTyped(parser, -1));
+        SettingSet cached = ((LayeredSettingSet) s).withParsedValueCache(new ParsedValueCache(16));
+        assertEquals(Integer.valueOf(-1), cached.getTyped("b", parser, -1));
+    }
+
     @Test
     public void getOpt() {
         SettingSet s = sample();
@@ -73,4 +86,19 @@ public class SettingSetTest extends SettingSetTestBase {
         assertEquals("hello", opt.orElse(null));
         assertEquals(Integer.valueOf(10), s.getOpt("b").map(Integer::parseInt).orElse(null));
     }
-}
\ No newline at end of file
+
+    @Test
+    public void get_array() {
+        SettingSet s = sample();
+        assertEquals("hello", s.get(new String[]{"d.d", "d.e", "d.f"}));
+        assertNull(s.get(new String[]{"j", "k", "l"}));
+        assertNull(s.get(new String[0]));
+    }
+
+    @Test
+    public void getTyped_array() {
+        SettingSet s = sample();
+        assertEquals(Integer.valueOf(10), s.getTyped(new String[]{"x", "b"}, Integer::valueOf, -1));
+        assertEquals(Integer.valueOf(-1), s.getTyped(new String[]{"x", "empty"}, Integer::valueOf, -1));
+    }
+}
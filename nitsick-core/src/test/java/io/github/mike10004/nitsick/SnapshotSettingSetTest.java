@@ -0,0 +1,58 @@
+package io.github.mike10004.nitsick;
+
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.*;
+
+public class SnapshotSettingSetTest {
+
+    @Test
+    public void snapshot() {
+        SettingLayer top = Utils.capturingLayer("a.b", "top", "a.d.e", "hello", "x.y", "elsewhere");
+        SettingLayer env = new EnvironmentLayer(Utils.map("A_B", "env", "A_C", "env", "A_TIMEOUT", "42s", "A", "domain"));
+        SettingSet s = new LayeredSettingSet("a", Lists.asList(top, env)).snapshot();
+        assertEquals("top", s.get("b"));
+        assertEquals("env", s.get("c"));
+        assertEquals("hello", s.get("d.e"));
+        assertEquals("hello", s.get(".d.e."));
+        assertEquals("domain", s.get(""));
+        assertNull(s.get("y"));
+        assertNull(s.get("x.y"));
+        assertEquals("env", s.get(Stream.of("z", "c", "b")));
+        assertEquals("top", s.compile("z", "b").get());
+        assertNull(s.compile("z").get());
+        assertEquals(Duration.ofSeconds(42), s.timeouts().getAnonymous(null));
+    }
+
+    @Test
+    public void snapshot_isStable() {
+        Map<String, String> map = Utils.map("a.b", "before");
+        SettingLayer layer = new ForwardingLayer(map::get) {
+            @Override
+            public Map<String, String> capture(String keyPrefix) {
+                return new HashMap<>(map);
+            }
+        };
+        SettingSet s = LayeredSettingSet.of("a", layer).snapshot();
+        map.put("a.b", "after");
+        assertEquals("before", s.get("b"));
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void snapshot_unsupported() {
+        LayeredSettingSet.of("a", Utils.layer("a.b", "c")).snapshot();
+    }
+
+    @Test
+    public void normalizeIdentifier() {
+        assertEquals("b", SnapshotSettingSet.normalizeIdentifier("b"));
+        assertEquals("b.c", SnapshotSettingSet.normalizeIdentifier("..b.c."));
+        assertEquals("", SnapshotSettingSet.normalizeIdentifier(" "));
+        assertEquals("", SnapshotSettingSet.normalizeIdentifier(""));
+    }
+}
@@ -28,6 +28,24 @@ public class TimeoutsTest {
         assertEquals(Duration.ofMillis(345), s.timeouts().get("notdefined", 345L));
     }
 
+    @Test
+    public void deadline() {
+        Deadline deadline = s.timeouts().deadline(StandardTimeout.MEDIUM);
+        assertTrue(deadline.remainingNanos() > Duration.ofSeconds(10).toNanos());
+        assertTrue(deadline.remainingNanos() <= Duration.ofSeconds(12).toNanos());
+        Deadline custom = s.timeouts().deadline("custom", Duration.ofDays(1));
+        assertTrue(custom.remainingNanos() <= Duration.ofMillis(4292).toNanos());
+        assertSame(custom, deadline.min(custom));
+    }
+
+    @Test
+    public void await() throws Exception {
+        assertTrue(s.timeouts().await(StandardTimeout.SHORT, () -> true));
+        long start = System.nanoTime();
+        assertFalse(s.timeouts().await(StandardTimeout.SHORT, () -> false, new WakeupSignal()));
+        assertTrue(System.nanoTime() - start >= Duration.ofMillis(200).toNanos());
+    }
+
     @Test
     public void getCustom() {
         assertEquals(Duration.ofMillis(4292), s.timeouts().get("custom", null));
@@ -37,4 +55,18 @@ public class TimeoutsTest {
     public void getAnonymous() {
         assertEquals(Duration.ofSeconds(42), s.timeouts().getAnonymous(null));
     }
-}
\ No newline at end of file
+
+    @Test
+    public void get_aliases() {
+        assertEquals(Duration.ofMillis(4292), s.timeouts().get(new String[]{"absent", "custom"}, null));
+        assertEquals(Duration.ofMillis(4292), s.timeouts().compile("absent", "custom").getTyped(Durations::parseDuration, null));
+    }
+
+    @Test
+    public void getShort() {
+        Timeouts timeouts = s.timeouts();
+        assertEquals(Duration.ofMillis(200), timeouts.getShort());
+        assertEquals(Duration.ofMillis(200), timeouts.getShort());
+        assertEquals(Duration.ofMillis(500), LayeredSettingSet.of("b", Utils.layer()).timeouts().getShort());
+    }
+}
@@ -1,6 +1,7 @@
 package io.github.mike10004.nitsick;
 
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
 
 public class Utils {
@@ -16,4 +17,23 @@ public class Utils {
     public static SettingLayer layer(String...keyValuePairs) {
         return new ForwardingLayer(map(keyValuePairs)::get);
     }
+
+    /**
+     * Creates a layer that supports capture.
+     */
+    public static SettingLayer capturingLayer(String...keyValuePairs) {
+        Map<String, String> map = map(keyValuePairs);
+        return new ForwardingLayer(map::get) {
+            @Override
+            public Map<String, String> capture(String keyPrefix) {
+                Map<String, String> captured = new LinkedHashMap<>();
+                map.forEach((k, v) -> {
+                    if (k.startsWith(keyPrefix)) {
+                        captured.put(k, v);
+                    }
+                });
+                return captured;
+            }
+        };
+    }
 }
@@ -0,0 +1,119 @@
+package io.github.mike10004.nitsick.junit;
+
+import org.junit.rules.TestRule;
+import org.junit.runner.Description;
+import org.junit.runners.model.Statement;
+import org.junit.runners.model.TestTimedOutException;
+
+import java.time.Duration;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Rule that derives the timeout of each test from the history of its elapsed times.
+ * The timeout is a high percentile of the recorded elapsed times multiplied by
+ * a safety factor, but not less than a minimum. If too few elapsed times are
+ * recorded, the fallback timeout is used. Tests run under a {@link WatchdogTimeout}.
+ *
+ * <p>The elapsed time of each test that passes is recorded in the history. A test
+ * that times out is recorded as well, with an elapsed time of at least the timeout
+ * it exceeded, so that a test that has become slower than its derived timeout
+ * raises its own timeout on subsequent runs instead of timing out forever.
+ * Tests that fail for other reasons are not recorded, because a test that fails
+ * early says little about how long it takes to pass.
+ */
+public class AdaptiveTimeout implements TestRule {
+
+    public static final double DEFAULT_PERCENTILE = 0.99;
+    public static final double DEFAULT_SAFETY_FACTOR = 3.0;
+    public static final int DEFAULT_MINIMUM_SAMPLES = 5;
+    public static final Duration DEFAULT_MINIMUM_TIMEOUT = Duration.ofMillis(250);
+
+    private final DurationHistory history;
+    private final Duration fallback;
+    private final double percentile;
+    private final double safetyFactor;
+    private final int minimumSamples;
+    private final Duration minimumTimeout;
+
+    /**
+     * Constructs an instance with default parameters.
+     * @param history the duration history
+     * @param fallback timeout of tests without enough history
+     */
+    public AdaptiveTimeout(DurationHistory history, Duration fallback) {
+        this(history, fallback, DEFAULT_PERCENTILE, DEFAULT_SAFETY_FACTOR, DEFAULT_MINIMUM_SAMPLES, DEFAULT_MINIMUM_TIMEOUT);
+    }
+
+    /**
+     * Constructs an instance.
+     * @param history the duration history
+     * @param fallback timeout of tests without enough history
+     * @param percentile percentile of the history, as a fraction in the range (0, 1]
+     * @param safetyFactor factor by which the percentile is multiplied
+     * @param minimumSamples minimum number of recorded elapsed times required to derive a timeout
+     * @param minimumTimeout minimum derived timeout
+     */
+    public AdaptiveTimeout(DurationHistory history, Duration fallback, double percentile, double safetyFactor, int minimumSamples, Duration minimumTimeout) {
+        this.history = requireNonNull(history, "history");
+        this.fallback = requireNonNull(fallback, "fallback");
+        if (!(percentile > 0 && percentile <= 1)) {
+            throw new IllegalArgumentException("percentile must be in range (0, 1]: " + percentile);
+        }
+        if (!(safetyFactor >= 1)) {
+            throw new IllegalArgumentException("safety factor must be at least 1: " + safetyFactor);
+        }
+        this.percentile = percentile;
+        this.safetyFactor = safetyFactor;
+        this.minimumSamples = Math.max(1, minimumSamples);
+        this.minimumTimeout = requireNonNull(minimumTimeout, "minimumTimeout");
+    }
+
+    /**
+     * Gets the identifier of a test in the history.
+     * @param description the test description
+     * @return the test identifier
+     */
+    static String testId(Description description) {
+        String methodName = description.getMethodName();
+        if (methodName == null) {
+            return description.getDisplayName();
+        }
+        return description.getClassName() + "#" + methodName;
+    }
+
+    /**
+     * Gets the timeout for a test.
+     * @param description the test description
+     * @return the timeout
+     */
+    public Duration timeoutFor(Description description) {
+        Duration observed = history.percentile(testId(description), percentile, minimumSamples);
+        if (observed == null) {
+            return fallback;
+        }
+        Duration derived = Duration.ofNanos((long) Math.min(Long.MAX_VALUE, observed.toNanos() * safetyFactor));
+        return derived.compareTo(minimumTimeout) < 0 ? minimumTimeout : derived;
+    }
+
+    @Override
+    public Statement apply(Statement base, Description description) {
+        String testId = testId(description);
+        Duration timeout = timeoutFor(description);
+        Statement guarded = new WatchdogTimeout(timeout).apply(base, description);
+        return new Statement() {
+            @Override
+            public void evaluate() throws Throwable {
+                long start = System.nanoTime();
+                try {
+                    guarded.evaluate();
+                } catch (TestTimedOutException e) {
+                    Duration elapsed = Duration.ofNanos(System.nanoTime() - start);
+                    history.record(testId, elapsed.compareTo(timeout) < 0 ? timeout : elapsed);
+                    throw e;
+                }
+                history.record(testId, Duration.ofNanos(System.nanoTime() - start));
+            }
+        };
+    }
+}
@@ -0,0 +1,332 @@
+package io.github.mike10004.nitsick.junit;
+
+import javax.annotation.Nullable;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * History of the elapsed times of tests, persisted in a compact binary file.
+ * For each test, the most recent samples are retained, up to a fixed capacity.
+ * Samples are recorded in memory and written to the file by {@link #save()}.
+ * Saving merges the samples recorded by this instance into the samples
+ * currently in the file, under a file lock, so multiple processes may
+ * share a history file.
+ */
+public final class DurationHistory {
+
+    static final int MAGIC = 0x4E544448;
+    static final int VERSION = 1;
+
+    /**
+     * Default maximum number of samples retained per test.
+     */
+    public static final int DEFAULT_CAPACITY = 32;
+
+    private static final ConcurrentMap<Path, DurationHistory> shared = new ConcurrentHashMap<>();
+
+    private final Path file;
+    private final int capacity;
+    private final ConcurrentMap<String, Samples> samples = new ConcurrentHashMap<>();
+    /*
+     * Guards updates of the samples map and all access to the unsaved map, so that
+     * a save cannot drop samples recorded while it is in progress.
+     */
+    private final Object samplesLock = new Object();
+    private final Map<String, Samples> unsaved = new HashMap<>();
+
+    /**
+     * Constructs an instance with the default capacity and loads the history file if it exists.
+     * @param file the history file
+     * @throws IOException if the file exists but cannot be read
+     */
+    public DurationHistory(Path file) throws IOException {
+        this(file, DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Constructs an instance and loads the history file if it exists.
+     * @param file the history file
+     * @param capacity maximum number of samples retained per test
+     * @throws IOException if the file exists but cannot be read
+     */
+    public DurationHistory(Path file, int capacity) throws IOException {
+        this.file = requireNonNull(file, "file");
+        if (capacity < 1 || capacity > 255) {
+            throw new IllegalArgumentException("capacity must be in range [1, 255]: " + capacity);
+        }
+        this.capacity = capacity;
+        samples.putAll(read(file, capacity));
+    }
+
+    /**
+     * Gets the instance that is shared within this process for a history file.
+     * The shared instance is saved when the JVM shuts down. If the file cannot be
+     * read, a warning is printed to standard error and the history starts empty.
+     * @param file the history file
+     * @return the shared instance
+     */
+    public static DurationHistory shared(Path file) {
+        Path key = file.toAbsolutePath().normalize();
+        return shared.computeIfAbsent(key, k -> {
+            DurationHistory history;
+            try {
+                history = new DurationHistory(k);
+            } catch (IOException e) {
+                System.err.println("nitsick: ignoring unreadable duration history " + k + ": " + e);
+                try {
+                    Files.deleteIfExists(k);
+                    history = new DurationHistory(k);
+                } catch (IOException e2) {
+                    throw new UncheckedIOException(e2);
+                }
+            }
+            DurationHistory saved = history;
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                try {
+                    saved.save();
+                } catch (IOException e) {
+                    System.err.println("nitsick: failed to save duration history " + k + ": " + e);
+                }
+            }, "nitsick-duration-history"));
+            return history;
+        });
+    }
+
+    /**
+     * Records the elapsed time of a test.
+     * @param testId the test identifier
+     * @param elapsed the elapsed time
+     */
+    public void record(String testId, Duration elapsed) {
+        requireNonNull(testId, "testId");
+        int millis = (int) Math.min(Integer.MAX_VALUE, Math.max(0, elapsed.toMillis()));
+        synchronized (samplesLock) {
+            samples.computeIfAbsent(testId, k -> new Samples(capacity)).add(millis);
+            unsaved.computeIfAbsent(testId, k -> new Samples(capacity)).add(millis);
+        }
+    }
+
+    /**
+     * Gets the number of samples retained for a test.
+     * @param testId the test identifier
+     * @return the number of samples
+     */
+    public int sampleCount(String testId) {
+        Samples s = samples.get(testId);
+        return s == null ? 0 : s.size();
+    }
+
+    /**
+     * Gets a percentile of the retained samples of a test, computed by the nearest-rank method.
+     * @param testId the test identifier
+     * @param percentile the percentile, as a fraction in the range (0, 1]
+     * @param minimumSamples minimum number of samples required
+     * @return the duration, or null if fewer than the minimum number of samples are retained
+     */
+    @Nullable
+    public Duration percentile(String testId, double percentile, int minimumSamples) {
+        if (!(percentile > 0 && percentile <= 1)) {
+            throw new IllegalArgumentException("percentile must be in range (0, 1]: " + percentile);
+        }
+        Samples s = samples.get(testId);
+        if (s == null) {
+            return null;
+        }
+        int[] sorted = s.toArray();
+        if (sorted.length == 0 || sorted.length < minimumSamples) {
+            return null;
+        }
+        Arrays.sort(sorted);
+        int rank = (int) Math.ceil(percentile * sorted.length);
+        return Duration.ofMillis(sorted[Math.max(0, rank - 1)]);
+    }
+
+    /**
+     * Writes the samples recorded since the last save to the history file, merging them
+     * with the samples currently in the file. Samples recorded while the save is in
+     * progress are retained in memory and written by the next save. If the save fails,
+     * the samples it would have written are retained for the next save.
+     * @throws IOException if the file cannot be read or written
+     */
+    public synchronized void save() throws IOException {
+        Map<String, int[]> pending = new HashMap<>();
+        synchronized (samplesLock) {
+            unsaved.forEach((testId, s) -> pending.put(testId, s.toArray()));
+            unsaved.clear();
+        }
+        if (pending.isEmpty()) {
+            return;
+        }
+        Map<String, Samples> merged;
+        try {
+            merged = merge(pending);
+        } catch (IOException | RuntimeException e) {
+            synchronized (samplesLock) {
+                pending.forEach((testId, values) -> {
+                    Samples s = unsaved.computeIfAbsent(testId, k -> new Samples(capacity));
+                    for (int millis : values) {
+                        s.add(millis);
+                    }
+                });
+            }
+            throw e;
+        }
+        synchronized (samplesLock) {
+            merged.forEach((testId, fromFile) -> {
+                Samples recordedSince = unsaved.get(testId);
+                if (recordedSince != null) {
+                    for (int millis : recordedSince.toArray()) {
+                        fromFile.add(millis);
+                    }
+                }
+                samples.put(testId, fromFile);
+            });
+        }
+    }
+
+    /**
+     * Merges samples into the history file under a file lock.
+     * @return the merged history as written to the file
+     */
+    private Map<String, Samples> merge(Map<String, int[]> pending) throws IOException {
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        Path lockFile = file.resolveSibling(file.getFileName() + ".lock");
+        try (FileChannel lockChannel = FileChannel.open(lockFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            FileLock lock = lockChannel.lock();
+            try {
+                Map<String, Samples> merged = read(file, capacity);
+                pending.forEach((testId, values) -> {
+                    Samples target = merged.computeIfAbsent(testId, k -> new Samples(capacity));
+                    for (int millis : values) {
+                        target.add(millis);
+                    }
+                });
+                Path temp = Files.createTempFile(parent, file.getFileName().toString(), ".tmp");
+                try {
+                    try (OutputStream out = Files.newOutputStream(temp)) {
+                        write(merged, out);
+                    }
+                    try {
+                        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                    } catch (AtomicMoveNotSupportedException e) {
+                        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+                    }
+                } finally {
+                    Files.deleteIfExists(temp);
+                }
+                return merged;
+            } finally {
+                lock.release();
+            }
+        }
+    }
+
+    private static Map<String, Samples> read(Path file, int capacity) throws IOException {
+        Map<String, Samples> loaded = new HashMap<>();
+        try (InputStream in = Files.newInputStream(file)) {
+            DataInputStream data = new DataInputStream(new BufferedInputStream(in));
+            if (data.readInt() != MAGIC) {
+                throw new IOException("not a duration history file: " + file);
+            }
+            int version = data.readUnsignedByte();
+            if (version != VERSION) {
+                throw new IOException("unsupported duration history version " + version + ": " + file);
+            }
+            int entries = data.readInt();
+            for (int i = 0; i < entries; i++) {
+                String testId = data.readUTF();
+                int count = data.readUnsignedByte();
+                Samples s = new Samples(capacity);
+                for (int j = 0; j < count; j++) {
+                    s.add(data.readInt());
+                }
+                loaded.put(testId, s);
+            }
+        } catch (NoSuchFileException e) {
+            return loaded;
+        }
+        return loaded;
+    }
+
+    /*
+     * Format: magic (int), version (byte), entry count (int), then for each entry
+     * the test identifier (modified UTF-8), sample count (byte), and samples in
+     * milliseconds (int each), oldest first.
+     */
+    private static void write(Map<String, Samples> history, OutputStream out) throws IOException {
+        DataOutputStream data = new DataOutputStream(new BufferedOutputStream(out));
+        data.writeInt(MAGIC);
+        data.writeByte(VERSION);
+        data.writeInt(history.size());
+        for (Map.Entry<String, Samples> entry : history.entrySet()) {
+            int[] values = entry.getValue().toArray();
+            data.writeUTF(entry.getKey());
+            data.writeByte(values.length);
+            for (int millis : values) {
+                data.writeInt(millis);
+            }
+        }
+        data.flush();
+    }
+
+    /**
+     * Ring buffer of the most recent samples of a test.
+     */
+    private static final class Samples {
+
+        private final int[] ring;
+        private int next;
+        private int size;
+
+        public Samples(int capacity) {
+            ring = new int[capacity];
+        }
+
+        public synchronized void add(int millis) {
+            ring[next] = millis;
+            next = (next + 1) % ring.length;
+            size = Math.min(size + 1, ring.length);
+        }
+
+        public synchronized int size() {
+            return size;
+        }
+
+        /**
+         * Copies the samples, oldest first.
+         */
+        public synchronized int[] toArray() {
+            int[] values = new int[size];
+            int start = (next - size + ring.length) % ring.length;
+            for (int i = 0; i < size; i++) {
+                values[i] = ring[(start + i) % ring.length];
+            }
+            return values;
+        }
+    }
+}
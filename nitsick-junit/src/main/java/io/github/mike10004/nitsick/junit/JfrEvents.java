@@ -0,0 +1,104 @@
+package io.github.mike10004.nitsick.junit;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Emitter of JDK Flight Recorder events for tests that approach their timeouts.
+ * The event type is defined at runtime with {@code jdk.jfr.EventFactory}, which
+ * is accessed reflectively so that this library still runs on JVMs without
+ * Flight Recorder, where emitting an event does nothing.
+ * The event is named {@value #EVENT_NAME}.
+ */
+final class JfrEvents {
+
+    static final String EVENT_NAME = "io.github.mike10004.nitsick.TimeoutUtilization";
+
+    private static final Emitter EMITTER = createEmitter();
+
+    private JfrEvents() {}
+
+    /**
+     * Determines whether events can be emitted in this JVM.
+     * @return true if Flight Recorder is available
+     */
+    public static boolean isAvailable() {
+        return EMITTER != null;
+    }
+
+    /**
+     * Emits an event. Nothing happens if Flight Recorder is not available
+     * or the event is not enabled in any recording.
+     */
+    public static void emit(String testId, String setting, long elapsedNanos, long budgetNanos, double utilization) {
+        if (EMITTER != null) {
+            EMITTER.emit(testId, setting, elapsedNanos, budgetNanos, utilization);
+        }
+    }
+
+    private static Emitter createEmitter() {
+        try {
+            return new Emitter();
+        } catch (ReflectiveOperationException | RuntimeException | LinkageError e) {
+            return null;
+        }
+    }
+
+    private static final class Emitter {
+
+        private final Object factory;
+        private final Method newEvent;
+        private final Method set;
+        private final Method shouldCommit;
+        private final Method commit;
+
+        @SuppressWarnings("unchecked")
+        public Emitter() throws ReflectiveOperationException {
+            Class<?> annotationElementClass = Class.forName("jdk.jfr.AnnotationElement");
+            Class<?> valueDescriptorClass = Class.forName("jdk.jfr.ValueDescriptor");
+            Class<?> eventFactoryClass = Class.forName("jdk.jfr.EventFactory");
+            Class<?> eventClass = Class.forName("jdk.jfr.Event");
+            Constructor<?> annotationElement = annotationElementClass.getConstructor(Class.class, Object.class);
+            Constructor<?> valueDescriptor = valueDescriptorClass.getConstructor(Class.class, String.class, List.class);
+            List<Object> eventAnnotations = Arrays.asList(
+                    annotationElement.newInstance(Class.forName("jdk.jfr.Name"), EVENT_NAME),
+                    annotationElement.newInstance(Class.forName("jdk.jfr.Label"), "Timeout Utilization"),
+                    annotationElement.newInstance(Class.forName("jdk.jfr.Category"), new String[]{"nitsick"}),
+                    annotationElement.newInstance(Class.forName("jdk.jfr.Description"), "Test that used a large fraction of its timeout"));
+            Class<? extends Annotation> label = (Class<? extends Annotation>) Class.forName("jdk.jfr.Label");
+            Object timespan = annotationElement.newInstance(Class.forName("jdk.jfr.Timespan"), "NANOSECONDS");
+            List<Object> fields = Arrays.asList(
+                    valueDescriptor.newInstance(String.class, "test", Collections.singletonList(annotationElement.newInstance(label, "Test"))),
+                    valueDescriptor.newInstance(String.class, "setting", Collections.singletonList(annotationElement.newInstance(label, "Timeout Setting"))),
+                    valueDescriptor.newInstance(long.class, "elapsed", Arrays.asList(annotationElement.newInstance(label, "Elapsed"), timespan)),
+                    valueDescriptor.newInstance(long.class, "budget", Arrays.asList(annotationElement.newInstance(label, "Budget"), timespan)),
+                    valueDescriptor.newInstance(double.class, "utilization", Collections.singletonList(annotationElement.newInstance(label, "Utilization"))));
+            factory = eventFactoryClass.getMethod("create", List.class, List.class).invoke(null, eventAnnotations, fields);
+            newEvent = eventFactoryClass.getMethod("newEvent");
+            set = eventClass.getMethod("set", int.class, Object.class);
+            shouldCommit = eventClass.getMethod("shouldCommit");
+            commit = eventClass.getMethod("commit");
+        }
+
+        public void emit(String testId, String setting, long elapsedNanos, long budgetNanos, double utilization) {
+            try {
+                Object event = newEvent.invoke(factory);
+                if (!((Boolean) shouldCommit.invoke(event))) {
+                    return;
+                }
+                set.invoke(event, 0, testId);
+                set.invoke(event, 1, setting);
+                set.invoke(event, 2, elapsedNanos);
+                set.invoke(event, 3, budgetNanos);
+                set.invoke(event, 4, utilization);
+                commit.invoke(event);
+            } catch (ReflectiveOperationException ignore) {
+                // telemetry must not fail the test
+            }
+        }
+    }
+}
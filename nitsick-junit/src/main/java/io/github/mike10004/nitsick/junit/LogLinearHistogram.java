@@ -0,0 +1,113 @@
+package io.github.mike10004.nitsick.junit;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Histogram of nonnegative integer values with log-linear buckets. Values below
+ * {@value #SUB_BUCKETS} have their own buckets; larger values are grouped by
+ * power of two, and each power of two is divided into {@value #SUB_BUCKETS} linear
+ * sub-buckets, so the relative error of a reported value is at most 1/{@value #SUB_BUCKETS}.
+ * Recording is lock-free. Values beyond the maximum are counted in the last bucket.
+ */
+final class LogLinearHistogram {
+
+    static final int SUB_BUCKET_BITS = 4;
+    static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+    private final AtomicLongArray counts;
+    private final long maxTrackable;
+    private final AtomicLong max = new AtomicLong();
+
+    /**
+     * Constructs an instance.
+     * @param maxExponent base-2 logarithm of the largest value that is bucketed precisely
+     */
+    public LogLinearHistogram(int maxExponent) {
+        if (maxExponent < SUB_BUCKET_BITS || maxExponent > 62) {
+            throw new IllegalArgumentException("max exponent out of range: " + maxExponent);
+        }
+        maxTrackable = (1L << (maxExponent + 1)) - 1;
+        counts = new AtomicLongArray(indexOf(maxTrackable) + 1);
+    }
+
+    static int indexOf(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int subBucket = (int) ((value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1));
+        return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + subBucket;
+    }
+
+    static long lowestValueAt(int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+        int exponent = index / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+        int subBucket = index % SUB_BUCKETS;
+        return (long) (SUB_BUCKETS + subBucket) << (exponent - SUB_BUCKET_BITS);
+    }
+
+    /**
+     * Records a value.
+     * @param value the value; negative values are recorded as zero
+     */
+    public void record(long value) {
+        value = Math.max(0, value);
+        counts.incrementAndGet(indexOf(Math.min(value, maxTrackable)));
+        long current;
+        while (value > (current = max.get())) {
+            if (max.compareAndSet(current, value)) {
+                break;
+            }
+        }
+    }
+
+    /**
+     * Gets the number of recorded values.
+     * @return the count
+     */
+    public long count() {
+        long total = 0;
+        for (int i = 0; i < counts.length(); i++) {
+            total += counts.get(i);
+        }
+        return total;
+    }
+
+    /**
+     * Gets the largest recorded value.
+     * @return the maximum, or zero if no values are recorded
+     */
+    public long max() {
+        return max.get();
+    }
+
+    /**
+     * Gets the approximate value at a percentile, which is the lowest value
+     * of the bucket containing the value at that rank.
+     * @param percentile the percentile, as a fraction in the range [0, 1]
+     * @return the value, or zero if no values are recorded
+     */
+    public long valueAtPercentile(double percentile) {
+        long[] snapshot = new long[counts.length()];
+        long total = 0;
+        for (int i = 0; i < snapshot.length; i++) {
+            snapshot[i] = counts.get(i);
+            total += snapshot[i];
+        }
+        if (total == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(percentile * total));
+        long seen = 0;
+        for (int i = 0; i < snapshot.length; i++) {
+            seen += snapshot[i];
+            if (seen >= rank) {
+                return lowestValueAt(i);
+            }
+        }
+        return lowestValueAt(snapshot.length - 1);
+    }
+}
@@ -1,9 +1,12 @@
 package io.github.mike10004.nitsick.junit;
 
 import io.github.mike10004.nitsick.SettingSet;
+import io.github.mike10004.nitsick.StandardTimeout;
+import io.github.mike10004.nitsick.TimeoutSetting;
 import io.github.mike10004.nitsick.Timeouts;
 import org.junit.rules.Timeout;
 
+import javax.annotation.Nullable;
 import java.time.Duration;
 import java.util.concurrent.TimeUnit;
 
@@ -12,9 +15,26 @@ import static java.util.Objects.requireNonNull;
 public class TimeoutRules {
 
     private final Timeouts timeouts;
+    @Nullable
+    private final TimeoutTelemetry telemetry;
 
     public TimeoutRules(Timeouts timeouts) {
+        this(timeouts, null);
+    }
+
+    private TimeoutRules(Timeouts timeouts, @Nullable TimeoutTelemetry telemetry) {
         this.timeouts = requireNonNull(timeouts);
+        this.telemetry = telemetry;
+    }
+
+    /**
+     * Returns a copy of this instance whose watchdog rules created from timeout settings
+     * record the elapsed times of tests with the given telemetry.
+     * @param telemetry the telemetry, for example {@link TimeoutTelemetry#global()}
+     * @return a new instance
+     */
+    public TimeoutRules withTelemetry(TimeoutTelemetry telemetry) {
+        return new TimeoutRules(timeouts, requireNonNull(telemetry, "telemetry"));
     }
 
     public Timeout rule(Duration duration) {
@@ -33,6 +53,60 @@ public class TimeoutRules {
         return rule(timeouts.getLong());
     }
 
+    /**
+     * Creates a rule that runs each test on the calling thread and fails it if it
+     * runs longer than the given duration.
+     * @param duration the timeout
+     * @return a new rule
+     * @see WatchdogTimeout
+     */
+    public WatchdogTimeout watchdogRule(Duration duration) {
+        return new WatchdogTimeout(duration);
+    }
+
+    /**
+     * Creates a rule that runs each test on the calling thread and fails it if it
+     * runs longer than the value of a timeout setting. If this instance has telemetry,
+     * elapsed times are recorded under the name of the setting.
+     * @param setting the timeout setting
+     * @return a new rule
+     * @see WatchdogTimeout
+     */
+    public WatchdogTimeout watchdogRule(TimeoutSetting setting) {
+        return new WatchdogTimeout(timeouts.get(setting), telemetry, telemetry == null ? null : settingName(setting));
+    }
+
+    static String settingName(TimeoutSetting setting) {
+        if (setting instanceof Enum) {
+            return ((Enum<?>) setting).name();
+        }
+        return String.valueOf(setting);
+    }
+
+    public WatchdogTimeout getShortWatchdogRule() {
+        return watchdogRule(StandardTimeout.SHORT);
+    }
+
+    public WatchdogTimeout getMediumWatchdogRule() {
+        return watchdogRule(StandardTimeout.MEDIUM);
+    }
+
+    public WatchdogTimeout getLongWatchdogRule() {
+        return watchdogRule(StandardTimeout.LONG);
+    }
+
+    /**
+     * Creates a rule that derives the timeout of each test from its history of elapsed times,
+     * falling back to the value of a timeout setting for tests without enough history.
+     * @param history the duration history, usually {@link DurationHistory#shared(java.nio.file.Path) shared}
+     * @param fallback the timeout setting used for tests without enough history
+     * @return a new rule
+     * @see AdaptiveTimeout
+     */
+    public AdaptiveTimeout adaptiveRule(DurationHistory history, TimeoutSetting fallback) {
+        return new AdaptiveTimeout(history, timeouts.get(fallback));
+    }
+
     public static TimeoutRules from(SettingSet settings) {
         return new TimeoutRules(settings.timeouts());
     }
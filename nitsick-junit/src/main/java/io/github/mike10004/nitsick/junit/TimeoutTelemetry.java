@@ -0,0 +1,149 @@
+package io.github.mike10004.nitsick.junit;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Telemetry of how much of their timeouts tests use. For each timeout setting,
+ * the ratio of elapsed time to timeout is recorded in a lock-free log-linear
+ * histogram, in thousandths. Tests whose ratio reaches a warning threshold are
+ * counted, and a JDK Flight Recorder event named
+ * {@value JfrEvents#EVENT_NAME} is emitted for each of them if Flight Recorder
+ * is available.
+ *
+ * <p>A summary of all settings may be written with {@link #writeReport(Appendable)},
+ * for example at the end of a test run by {@link TimeoutTelemetryReporter}.
+ * @see TimeoutRules#withTelemetry(TimeoutTelemetry)
+ */
+public final class TimeoutTelemetry {
+
+    /**
+     * Default fraction of a timeout at which a test is reported as approaching its timeout.
+     */
+    public static final double DEFAULT_WARNING_THRESHOLD = 0.8;
+
+    private static final int MAX_PERMILLE_EXPONENT = 20;
+
+    private static final TimeoutTelemetry GLOBAL = new TimeoutTelemetry(DEFAULT_WARNING_THRESHOLD);
+
+    private final double warningThreshold;
+    private final ConcurrentMap<String, SettingStats> stats = new ConcurrentHashMap<>();
+
+    /**
+     * Constructs an instance.
+     * @param warningThreshold fraction of a timeout at which a test is reported as approaching its timeout
+     */
+    public TimeoutTelemetry(double warningThreshold) {
+        if (!(warningThreshold > 0)) {
+            throw new IllegalArgumentException("warning threshold must be positive: " + warningThreshold);
+        }
+        this.warningThreshold = warningThreshold;
+    }
+
+    /**
+     * Gets the instance shared within this process, whose warning threshold is
+     * {@link #DEFAULT_WARNING_THRESHOLD}.
+     * @return the global instance
+     */
+    public static TimeoutTelemetry global() {
+        return GLOBAL;
+    }
+
+    /**
+     * Records the elapsed time of a test.
+     * @param setting name of the timeout setting
+     * @param testId test identifier
+     * @param elapsedNanos elapsed time in nanoseconds
+     * @param budgetNanos timeout in nanoseconds
+     */
+    public void record(String setting, String testId, long elapsedNanos, long budgetNanos) {
+        SettingStats s = stats.get(setting);
+        if (s == null) {
+            s = stats.computeIfAbsent(setting, k -> new SettingStats());
+        }
+        double utilization = budgetNanos <= 0 ? Double.POSITIVE_INFINITY : (double) elapsedNanos / budgetNanos;
+        s.histogram.record((long) Math.min(Long.MAX_VALUE, utilization * 1000));
+        if (utilization >= warningThreshold) {
+            s.warnings.increment();
+            JfrEvents.emit(testId, setting, elapsedNanos, budgetNanos, utilization);
+        }
+        if (utilization >= 1) {
+            s.exceeded.increment();
+        }
+    }
+
+    /**
+     * Gets the number of tests recorded for a setting.
+     * @param setting name of the timeout setting
+     * @return the count
+     */
+    public long count(String setting) {
+        SettingStats s = stats.get(setting);
+        return s == null ? 0 : s.histogram.count();
+    }
+
+    /**
+     * Gets the number of tests recorded for a setting that reached the warning threshold.
+     * @param setting name of the timeout setting
+     * @return the count
+     */
+    public long warningCount(String setting) {
+        SettingStats s = stats.get(setting);
+        return s == null ? 0 : s.warnings.sum();
+    }
+
+    /**
+     * Gets the approximate utilization of a setting at a percentile.
+     * @param setting name of the timeout setting
+     * @param percentile the percentile, as a fraction in the range [0, 1]
+     * @return the ratio of elapsed time to timeout
+     */
+    public double utilizationAtPercentile(String setting, double percentile) {
+        SettingStats s = stats.get(setting);
+        return s == null ? 0 : s.histogram.valueAtPercentile(percentile) / 1000.0;
+    }
+
+    /**
+     * Writes a summary of the recorded utilization of each setting.
+     * @param out the destination
+     * @throws IOException if writing fails
+     */
+    public void writeReport(Appendable out) throws IOException {
+        Map<String, SettingStats> sorted = new TreeMap<>(stats);
+        out.append(String.format("%-16s %8s %7s %7s %7s %7s %8s %8s%n", "timeout", "tests", "p50", "p90", "p99", "max", ">=" + Math.round(warningThreshold * 100) + "%", "exceeded"));
+        for (Map.Entry<String, SettingStats> entry : sorted.entrySet()) {
+            LogLinearHistogram h = entry.getValue().histogram;
+            out.append(String.format("%-16s %8d %6.0f%% %6.0f%% %6.0f%% %6.0f%% %8d %8d%n",
+                    entry.getKey(), h.count(),
+                    h.valueAtPercentile(0.5) / 10.0, h.valueAtPercentile(0.9) / 10.0,
+                    h.valueAtPercentile(0.99) / 10.0, h.max() / 10.0,
+                    entry.getValue().warnings.sum(), entry.getValue().exceeded.sum()));
+        }
+    }
+
+    /**
+     * Gets a summary of the recorded utilization of each setting.
+     * @return the report
+     */
+    public String report() {
+        StringBuilder sb = new StringBuilder();
+        try {
+            writeReport(sb);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return sb.toString();
+    }
+
+    private static final class SettingStats {
+
+        public final LogLinearHistogram histogram = new LogLinearHistogram(MAX_PERMILLE_EXPONENT);
+        public final LongAdder warnings = new LongAdder();
+        public final LongAdder exceeded = new LongAdder();
+    }
+}
@@ -0,0 +1,37 @@
+package io.github.mike10004.nitsick.junit;
+
+import org.junit.runner.Result;
+import org.junit.runner.notification.RunListener;
+
+import java.io.IOException;
+import java.io.PrintStream;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Run listener that prints the timeout telemetry report when a test run finishes.
+ * The no-argument constructor reports {@link TimeoutTelemetry#global() global}
+ * telemetry to standard error, so this class may be named as a listener
+ * in the configuration of a test runner such as Maven Surefire.
+ */
+public class TimeoutTelemetryReporter extends RunListener {
+
+    private final TimeoutTelemetry telemetry;
+    private final PrintStream out;
+
+    public TimeoutTelemetryReporter() {
+        this(TimeoutTelemetry.global(), System.err);
+    }
+
+    public TimeoutTelemetryReporter(TimeoutTelemetry telemetry, PrintStream out) {
+        this.telemetry = requireNonNull(telemetry, "telemetry");
+        this.out = requireNonNull(out, "out");
+    }
+
+    @Override
+    public void testRunFinished(Result result) throws IOException {
+        out.println("Timeout utilization:");
+        telemetry.writeReport(out);
+        out.flush();
+    }
+}
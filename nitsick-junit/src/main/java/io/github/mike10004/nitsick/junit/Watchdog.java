@@ -0,0 +1,34 @@
+package io.github.mike10004.nitsick.junit;
+
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Single daemon thread shared by all watchdog timeout rules. The thread is
+ * started when the first deadline is armed. Cancelled deadlines are removed
+ * from the queue immediately, so tests that finish in time leave nothing behind.
+ */
+final class Watchdog {
+
+    private Watchdog() {}
+
+    private static final class Holder {
+
+        static final ScheduledThreadPoolExecutor EXECUTOR = createExecutor();
+
+        private static ScheduledThreadPoolExecutor createExecutor() {
+            ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(1, runnable -> {
+                Thread thread = new Thread(runnable, "nitsick-watchdog");
+                thread.setDaemon(true);
+                return thread;
+            });
+            executor.setRemoveOnCancelPolicy(true);
+            return executor;
+        }
+    }
+
+    public static ScheduledFuture<?> schedule(Runnable alarm, long delayNanos) {
+        return Holder.EXECUTOR.schedule(alarm, delayNanos, TimeUnit.NANOSECONDS);
+    }
+}
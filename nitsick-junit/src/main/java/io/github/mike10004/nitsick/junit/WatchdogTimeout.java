@@ -0,0 +1,173 @@
+package io.github.mike10004.nitsick.junit;
+
+import org.junit.rules.TestRule;
+import org.junit.runner.Description;
+import org.junit.runners.model.Statement;
+import org.junit.runners.model.TestTimedOutException;
+
+import javax.annotation.Nullable;
+import java.io.PrintStream;
+import java.time.Duration;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Rule that fails a test that runs longer than a timeout. Unlike
+ * {@link org.junit.rules.Timeout}, which runs each test on a new thread,
+ * this rule runs the test on the calling thread and arms a deadline on a
+ * single watchdog thread shared by all instances. When a deadline passes,
+ * the stack of the test thread is printed to standard error and the test
+ * thread is interrupted. When the test returns, it fails with a
+ * {@link TestTimedOutException} whose stack trace is the stack of the test
+ * thread at the time the deadline passed.
+ *
+ * <p>Because the test is not abandoned, a test that does not respond to
+ * interruption continues until it finishes on its own and then fails.
+ * Thread-local state set up before the test, for example by other rules,
+ * remains visible to the test.
+ *
+ * <p>If constructed with {@link TimeoutTelemetry telemetry}, the rule records
+ * the elapsed time of each test, whether it passes, fails, or times out, under
+ * the name of the timeout setting from which the timeout was resolved.
+ */
+public class WatchdogTimeout implements TestRule {
+
+    private static final int ARMED = 0, FIRING = 1, FIRED = 2, DISARMED = 3;
+
+    private final long timeoutNanos;
+    @Nullable
+    private final TimeoutTelemetry telemetry;
+    @Nullable
+    private final String settingName;
+
+    /**
+     * Constructs an instance.
+     * @param timeout the timeout
+     */
+    public WatchdogTimeout(Duration timeout) {
+        this(timeout, null, null);
+    }
+
+    /**
+     * Constructs an instance that records elapsed times with telemetry.
+     * @param timeout the timeout
+     * @param telemetry the telemetry, or null to record nothing
+     * @param settingName name of the timeout setting under which elapsed times are recorded
+     */
+    public WatchdogTimeout(Duration timeout, @Nullable TimeoutTelemetry telemetry, @Nullable String settingName) {
+        requireNonNull(timeout, "timeout");
+        if (timeout.isNegative() || timeout.isZero()) {
+            throw new IllegalArgumentException("timeout must be positive: " + timeout);
+        }
+        if (telemetry != null) {
+            requireNonNull(settingName, "settingName");
+        }
+        this.timeoutNanos = timeout.toNanos();
+        this.telemetry = telemetry;
+        this.settingName = settingName;
+    }
+
+    /**
+     * Gets the timeout.
+     * @return the timeout
+     */
+    public Duration getTimeout() {
+        return Duration.ofNanos(timeoutNanos);
+    }
+
+    @Override
+    public Statement apply(Statement base, Description description) {
+        return new Statement() {
+            @Override
+            public void evaluate() throws Throwable {
+                Alarm alarm = new Alarm(Thread.currentThread(), description);
+                // the clock starts before the deadline is armed, so a test that times out is recorded as using its whole budget
+                long start = System.nanoTime();
+                ScheduledFuture<?> deadline = Watchdog.schedule(alarm, timeoutNanos);
+                Throwable failure = null;
+                try {
+                    base.evaluate();
+                } catch (Throwable t) {
+                    failure = t;
+                }
+                boolean disarmed = alarm.disarm();
+                if (telemetry != null) {
+                    long elapsed = System.nanoTime() - start;
+                    telemetry.record(settingName, AdaptiveTimeout.testId(description), disarmed ? elapsed : Math.max(elapsed, timeoutNanos), timeoutNanos);
+                }
+                if (disarmed) {
+                    deadline.cancel(false);
+                } else {
+                    alarm.awaitFired();
+                    Thread.interrupted();
+                    TestTimedOutException timedOut = new TestTimedOutException(TimeUnit.NANOSECONDS.toMillis(timeoutNanos), TimeUnit.MILLISECONDS);
+                    timedOut.setStackTrace(alarm.stackTrace);
+                    if (failure != null && !(failure instanceof InterruptedException)) {
+                        timedOut.addSuppressed(failure);
+                    }
+                    throw timedOut;
+                }
+                if (failure != null) {
+                    throw failure;
+                }
+            }
+        };
+    }
+
+    /**
+     * Task run by the watchdog when a deadline passes.
+     */
+    private static final class Alarm implements Runnable {
+
+        private final Thread thread;
+        private final Description description;
+        private final AtomicInteger state = new AtomicInteger(ARMED);
+        private volatile StackTraceElement[] stackTrace = new StackTraceElement[0];
+
+        public Alarm(Thread thread, Description description) {
+            this.thread = thread;
+            this.description = description;
+        }
+
+        @Override
+        public void run() {
+            if (!state.compareAndSet(ARMED, FIRING)) {
+                return;
+            }
+            try {
+                stackTrace = thread.getStackTrace();
+                dump(System.err);
+                thread.interrupt();
+            } finally {
+                state.set(FIRED);
+            }
+        }
+
+        private void dump(PrintStream out) {
+            StringBuilder sb = new StringBuilder();
+            sb.append("test timed out: ").append(description.getDisplayName())
+                    .append(" on thread \"").append(thread.getName()).append("\"").append(System.lineSeparator());
+            for (StackTraceElement element : stackTrace) {
+                sb.append("\tat ").append(element).append(System.lineSeparator());
+            }
+            out.print(sb);
+        }
+
+        /**
+         * Disarms the alarm.
+         * @return true if the alarm was disarmed before it fired
+         */
+        public boolean disarm() {
+            return state.compareAndSet(ARMED, DISARMED);
+        }
+
+        public void awaitFired() {
+            while (state.get() != FIRED) {
+                Thread.yield();
+            }
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package io.github.mike10004.nitsick.junit;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.Description;
+import org.junit.runners.model.Statement;
+import org.junit.runners.model.TestTimedOutException;
+
+import java.time.Duration;
+
+import static org.junit.Assert.*;
+
+public class AdaptiveTimeoutTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private final Description description = Description.createTestDescription(AdaptiveTimeoutTest.class, "example");
+
+    @Test
+    public void timeoutFor() throws Exception {
+        DurationHistory history = new DurationHistory(temporaryFolder.getRoot().toPath().resolve("history"));
+        AdaptiveTimeout rule = new AdaptiveTimeout(history, Duration.ofSeconds(30), 0.99, 3.0, 5, Duration.ofMillis(250));
+        assertEquals(Duration.ofSeconds(30), rule.timeoutFor(description));
+        String testId = AdaptiveTimeout.testId(description);
+        assertEquals(AdaptiveTimeoutTest.class.getName() + "#example", testId);
+        for (int i = 0; i < 5; i++) {
+            history.record(testId, Duration.ofMillis(400));
+        }
+        assertEquals(Duration.ofMillis(1200), rule.timeoutFor(description));
+        history.record(testId, Duration.ofMillis(1));
+        assertEquals(Duration.ofMillis(1200), rule.timeoutFor(description));
+        DurationHistory fast = new DurationHistory(temporaryFolder.getRoot().toPath().resolve("fast"));
+        for (int i = 0; i < 5; i++) {
+            fast.record(testId, Duration.ofMillis(1));
+        }
+        assertEquals(Duration.ofMillis(250), new AdaptiveTimeout(fast, Duration.ofSeconds(30)).timeoutFor(description));
+    }
+
+    @Test
+    public void apply_records() throws Throwable {
+        DurationHistory history = new DurationHistory(temporaryFolder.getRoot().toPath().resolve("history"));
+        AdaptiveTimeout rule = new AdaptiveTimeout(history, Duration.ofSeconds(10));
+        rule.apply(new Statement() {
+            @Override
+            public void evaluate() {
+            }
+        }, description).evaluate();
+        assertEquals(1, history.sampleCount(AdaptiveTimeout.testId(description)));
+        try {
+            rule.apply(new Statement() {
+                @Override
+                public void evaluate() {
+                    throw new IllegalStateException();
+                }
+            }, description).evaluate();
+            fail("expected exception");
+        } catch (IllegalStateException ignore) {
+        }
+        assertEquals("failed tests are not recorded", 1, history.sampleCount(AdaptiveTimeout.testId(description)));
+    }
+
+    @Test
+    public void apply_timeoutRaisesLimit() throws Throwable {
+        DurationHistory history = new DurationHistory(temporaryFolder.getRoot().toPath().resolve("history"));
+        String testId = AdaptiveTimeout.testId(description);
+        for (int i = 0; i < 5; i++) {
+            history.record(testId, Duration.ofMillis(10));
+        }
+        AdaptiveTimeout rule = new AdaptiveTimeout(history, Duration.ofSeconds(10), 0.99, 3.0, 5, Duration.ofMillis(50));
+        assertEquals(Duration.ofMillis(50), rule.timeoutFor(description));
+        try {
+            rule.apply(new Statement() {
+                @Override
+                public void evaluate() throws Throwable {
+                    Thread.sleep(10000);
+                }
+            }, description).evaluate();
+            fail("expected timeout");
+        } catch (TestTimedOutException ignore) {
+        }
+        assertEquals("timed-out run is recorded", 6, history.sampleCount(testId));
+        assertTrue(history.percentile(testId, 1, 1).compareTo(Duration.ofMillis(50)) >= 0);
+        assertTrue(rule.timeoutFor(description).compareTo(Duration.ofMillis(150)) >= 0);
+    }
+}
@@ -0,0 +1,104 @@
+package io.github.mike10004.nitsick.junit;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+
+import static org.junit.Assert.*;
+
+public class DurationHistoryTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void percentile() throws Exception {
+        DurationHistory history = new DurationHistory(temporaryFolder.getRoot().toPath().resolve("history"));
+        assertNull(history.percentile("t", 0.99, 1));
+        for (int i = 1; i <= 10; i++) {
+            history.record("t", Duration.ofMillis(i * 10));
+        }
+        assertEquals(10, history.sampleCount("t"));
+        assertEquals(Duration.ofMillis(100), history.percentile("t", 0.99, 5));
+        assertEquals(Duration.ofMillis(50), history.percentile("t", 0.5, 5));
+        assertEquals(Duration.ofMillis(10), history.percentile("t", 0.01, 5));
+        assertNull(history.percentile("t", 0.5, 11));
+    }
+
+    @Test
+    public void capacity() throws Exception {
+        DurationHistory history = new DurationHistory(temporaryFolder.getRoot().toPath().resolve("history"), 3);
+        for (int i = 1; i <= 5; i++) {
+            history.record("t", Duration.ofMillis(i));
+        }
+        assertEquals(3, history.sampleCount("t"));
+        assertEquals(Duration.ofMillis(3), history.percentile("t", 0.01, 1));
+    }
+
+    @Test
+    public void saveAndLoad_merges() throws Exception {
+        Path file = temporaryFolder.getRoot().toPath().resolve("sub/history");
+        DurationHistory first = new DurationHistory(file);
+        DurationHistory second = new DurationHistory(file);
+        first.record("a", Duration.ofMillis(100));
+        first.record("b", Duration.ofMillis(200));
+        second.record("a", Duration.ofMillis(300));
+        first.save();
+        second.save();
+        DurationHistory loaded = new DurationHistory(file);
+        assertEquals(2, loaded.sampleCount("a"));
+        assertEquals(1, loaded.sampleCount("b"));
+        assertEquals(Duration.ofMillis(300), loaded.percentile("a", 1, 1));
+        assertTrue("file expected to be compact", Files.size(file) < 64);
+    }
+
+    @Test
+    public void save_concurrentRecords() throws Exception {
+        DurationHistory history = new DurationHistory(temporaryFolder.getRoot().toPath().resolve("history"), 255);
+        int total = 200;
+        Thread recorder = new Thread(() -> {
+            for (int i = 0; i < total; i++) {
+                history.record("t", Duration.ofMillis(i));
+                Thread.yield();
+            }
+        });
+        recorder.start();
+        while (recorder.isAlive()) {
+            history.save();
+        }
+        recorder.join();
+        assertEquals("samples recorded during saves must be retained", total, history.sampleCount("t"));
+        history.save();
+        assertEquals(total, new DurationHistory(temporaryFolder.getRoot().toPath().resolve("history"), 255).sampleCount("t"));
+    }
+
+    @Test
+    public void save_failureRetainsSamples() throws Exception {
+        Path file = temporaryFolder.newFile().toPath();
+        Files.write(file, new byte[]{1, 2, 3, 4, 5, 6, 7, 8, 9});
+        Path valid = temporaryFolder.getRoot().toPath().resolve("valid");
+        DurationHistory history = new DurationHistory(valid);
+        history.record("t", Duration.ofMillis(5));
+        Files.move(file, valid);
+        try {
+            history.save();
+            fail("expected exception");
+        } catch (IOException expected) {
+        }
+        Files.delete(valid);
+        history.save();
+        assertEquals(1, new DurationHistory(valid).sampleCount("t"));
+    }
+
+    @Test(expected = IOException.class)
+    public void load_notHistory() throws Exception {
+        Path file = temporaryFolder.newFile().toPath();
+        Files.write(file, new byte[]{1, 2, 3, 4, 5, 6, 7, 8, 9});
+        new DurationHistory(file);
+    }
+}
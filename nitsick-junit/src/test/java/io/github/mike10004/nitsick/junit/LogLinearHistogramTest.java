@@ -0,0 +1,73 @@
+package io.github.mike10004.nitsick.junit;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class LogLinearHistogramTest {
+
+    @Test
+    public void indexOf_roundTrip() {
+        for (long value = 0; value < 100_000; value++) {
+            int index = LogLinearHistogram.indexOf(value);
+            long low = LogLinearHistogram.lowestValueAt(index);
+            long nextLow = LogLinearHistogram.lowestValueAt(index + 1);
+            assertTrue("value " + value, low <= value && value < nextLow);
+            assertTrue("relative error of " + value, value - low <= value / LogLinearHistogram.SUB_BUCKETS);
+        }
+    }
+
+    @Test
+    public void percentiles() {
+        LogLinearHistogram h = new LogLinearHistogram(20);
+        for (int i = 1; i <= 1000; i++) {
+            h.record(i);
+        }
+        assertEquals(1000, h.count());
+        assertEquals(1000, h.max());
+        assertEquals(500, h.valueAtPercentile(0.5), 500 / LogLinearHistogram.SUB_BUCKETS);
+        assertEquals(990, h.valueAtPercentile(0.99), 990 / LogLinearHistogram.SUB_BUCKETS);
+        assertEquals(1, h.valueAtPercentile(0));
+    }
+
+    @Test
+    public void empty() {
+        LogLinearHistogram h = new LogLinearHistogram(10);
+        assertEquals(0, h.count());
+        assertEquals(0, h.valueAtPercentile(0.5));
+    }
+
+    @Test
+    public void outOfRange() {
+        LogLinearHistogram h = new LogLinearHistogram(10);
+        h.record(-5);
+        h.record(Long.MAX_VALUE);
+        assertEquals(2, h.count());
+        assertEquals(0, h.valueAtPercentile(0.5));
+        assertEquals(Long.MAX_VALUE, h.max());
+        assertTrue(h.valueAtPercentile(1) >= 1024);
+    }
+
+    @Test
+    public void concurrentRecording() throws Exception {
+        LogLinearHistogram h = new LogLinearHistogram(20);
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            Thread thread = new Thread(() -> {
+                for (int i = 0; i < 10_000; i++) {
+                    h.record(i);
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertEquals(40_000, h.count());
+        assertEquals(9_999, h.max());
+    }
+}
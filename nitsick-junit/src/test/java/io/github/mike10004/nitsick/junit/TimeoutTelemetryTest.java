@@ -0,0 +1,114 @@
+package io.github.mike10004.nitsick.junit;
+
+import io.github.mike10004.nitsick.SettingSet;
+import io.github.mike10004.nitsick.StandardTimeout;
+import org.junit.Test;
+import org.junit.runner.Description;
+import org.junit.runner.Result;
+import org.junit.runners.model.Statement;
+import org.junit.runners.model.TestTimedOutException;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class TimeoutTelemetryTest {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    @Test
+    public void record() {
+        TimeoutTelemetry telemetry = new TimeoutTelemetry(0.8);
+        telemetry.record("SHORT", "a", SECOND / 10, SECOND);
+        telemetry.record("SHORT", "b", SECOND / 2, SECOND);
+        telemetry.record("SHORT", "c", SECOND * 9 / 10, SECOND);
+        telemetry.record("LONG", "d", SECOND * 2, SECOND);
+        assertEquals(3, telemetry.count("SHORT"));
+        assertEquals(1, telemetry.warningCount("SHORT"));
+        assertEquals(1, telemetry.count("LONG"));
+        assertEquals(1, telemetry.warningCount("LONG"));
+        assertEquals(0, telemetry.count("MEDIUM"));
+        assertEquals(0.5, telemetry.utilizationAtPercentile("SHORT", 0.5), 0.5 / LogLinearHistogram.SUB_BUCKETS);
+        assertEquals(2.0, telemetry.utilizationAtPercentile("LONG", 1), 2.0 / LogLinearHistogram.SUB_BUCKETS);
+    }
+
+    @Test
+    public void report() {
+        TimeoutTelemetry telemetry = new TimeoutTelemetry(0.5);
+        telemetry.record("SHORT", "a", SECOND * 3 / 4, SECOND);
+        telemetry.record("LONG", "b", SECOND * 2, SECOND);
+        String report = telemetry.report();
+        String[] lines = report.split("\\R");
+        assertEquals(report, 3, lines.length);
+        assertTrue(lines[0], lines[0].contains(">=50%"));
+        assertTrue(lines[1], lines[1].startsWith("LONG"));
+        assertTrue(lines[1], lines[1].matches(".*\\s1\\s+1$"));
+        assertTrue(lines[2], lines[2].startsWith("SHORT"));
+        assertTrue(lines[2], lines[2].matches(".*\\s1\\s+0$"));
+    }
+
+    @Test
+    public void emitsFlightRecorderEvent() {
+        boolean jfrPresent;
+        try {
+            Class.forName("jdk.jfr.EventFactory");
+            jfrPresent = true;
+        } catch (ClassNotFoundException e) {
+            jfrPresent = false;
+        }
+        assertEquals(jfrPresent, JfrEvents.isAvailable());
+        JfrEvents.emit("a", "SHORT", SECOND, SECOND, 1.0);
+    }
+
+    @Test
+    public void watchdogRuleRecords() throws Throwable {
+        TimeoutTelemetry telemetry = new TimeoutTelemetry(TimeoutTelemetry.DEFAULT_WARNING_THRESHOLD);
+        TimeoutRules rules = TimeoutRules.from(SettingSet.system("nitsick.test.telemetry")).withTelemetry(telemetry);
+        WatchdogTimeout rule = rules.getMediumWatchdogRule();
+        rule.apply(new Statement() {
+            @Override
+            public void evaluate() {
+            }
+        }, Description.createTestDescription(TimeoutTelemetryTest.class, "statement")).evaluate();
+        assertEquals(1, telemetry.count(StandardTimeout.MEDIUM.name()));
+        assertEquals(0, telemetry.warningCount(StandardTimeout.MEDIUM.name()));
+    }
+
+    @Test
+    public void watchdogRecordsTimeout() throws Throwable {
+        TimeoutTelemetry telemetry = new TimeoutTelemetry(TimeoutTelemetry.DEFAULT_WARNING_THRESHOLD);
+        WatchdogTimeout rule = new WatchdogTimeout(Duration.ofMillis(20), telemetry, "custom");
+        try {
+            rule.apply(new Statement() {
+                @Override
+                public void evaluate() throws Throwable {
+                    Thread.sleep(10000);
+                }
+            }, Description.createTestDescription(TimeoutTelemetryTest.class, "statement")).evaluate();
+            fail("expected timeout");
+        } catch (TestTimedOutException ignore) {
+        }
+        assertEquals(1, telemetry.count("custom"));
+        assertEquals(1, telemetry.warningCount("custom"));
+    }
+
+    @Test
+    public void reporter() throws Exception {
+        TimeoutTelemetry telemetry = new TimeoutTelemetry(0.8);
+        telemetry.record("SHORT", "a", SECOND / 10, SECOND);
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        new TimeoutTelemetryReporter(telemetry, new PrintStream(buffer, true, "UTF-8")).testRunFinished(new Result());
+        String output = new String(buffer.toByteArray(), StandardCharsets.UTF_8);
+        assertTrue(output, output.startsWith("Timeout utilization:"));
+        assertTrue(output, output.contains("SHORT"));
+    }
+
+    @Test
+    public void settingName() {
+        assertEquals("SHORT", TimeoutRules.settingName(StandardTimeout.SHORT));
+    }
+}
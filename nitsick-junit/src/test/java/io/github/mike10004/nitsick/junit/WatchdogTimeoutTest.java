@@ -0,0 +1,82 @@
+package io.github.mike10004.nitsick.junit;
+
+import org.junit.Test;
+import org.junit.runner.Description;
+import org.junit.runners.model.Statement;
+import org.junit.runners.model.TestTimedOutException;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.*;
+
+public class WatchdogTimeoutTest {
+
+    private static void evaluate(WatchdogTimeout rule, Statement statement) throws Throwable {
+        rule.apply(statement, Description.createTestDescription(WatchdogTimeoutTest.class, "statement")).evaluate();
+    }
+
+    @Test
+    public void passes_onCallingThread() throws Throwable {
+        AtomicReference<Thread> testThread = new AtomicReference<>();
+        evaluate(new WatchdogTimeout(Duration.ofSeconds(10)), new Statement() {
+            @Override
+            public void evaluate() {
+                testThread.set(Thread.currentThread());
+            }
+        });
+        assertSame(Thread.currentThread(), testThread.get());
+        assertFalse(Thread.currentThread().isInterrupted());
+    }
+
+    @Test
+    public void failurePropagates() throws Throwable {
+        IllegalStateException expected = new IllegalStateException("failed");
+        try {
+            evaluate(new WatchdogTimeout(Duration.ofSeconds(10)), new Statement() {
+                @Override
+                public void evaluate() {
+                    throw expected;
+                }
+            });
+            fail("expected exception");
+        } catch (IllegalStateException e) {
+            assertSame(expected, e);
+        }
+    }
+
+    @Test
+    public void timesOut() throws Throwable {
+        try {
+            evaluate(new WatchdogTimeout(Duration.ofMillis(50)), new Statement() {
+                @Override
+                public void evaluate() throws Throwable {
+                    Thread.sleep(10000);
+                }
+            });
+            fail("expected timeout");
+        } catch (TestTimedOutException e) {
+            assertEquals(50, e.getTimeout());
+            assertTrue(e.getStackTrace().length > 0);
+        }
+        assertFalse("interrupt status should be cleared", Thread.currentThread().isInterrupted());
+    }
+
+    @Test
+    public void timesOut_uninterruptible() throws Throwable {
+        try {
+            evaluate(new WatchdogTimeout(Duration.ofMillis(20)), new Statement() {
+                @Override
+                public void evaluate() {
+                    long stop = System.nanoTime() + 200_000_000L;
+                    while (System.nanoTime() < stop) {
+                        Thread.yield();
+                    }
+                }
+            });
+            fail("expected timeout");
+        } catch (TestTimedOutException ignore) {
+        }
+        assertFalse(Thread.currentThread().isInterrupted());
+    }
+}